@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the Bundesbank payloads under {@code src/jmh/resources/fixtures}.
+ */
+public final class Fixtures {
+
+    public static final String EXCHANGE_RATES_JSON = "bbex3-exchange-rates.json";
+    public static final String CURRENCIES_JSON = "bbex3-currencies.json";
+    public static final String EXCHANGE_RATES_CSV = "bbex3-exchange-rates.csv";
+
+    private Fixtures() {
+    }
+
+    public static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String string(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Concatenates the CSV fixture {@code copies} times, keeping only the first header line.
+     */
+    public static byte[] csv(int copies) {
+        String csv = string(EXCHANGE_RATES_CSV);
+        int bodyStart = csv.indexOf('\n') + 1;
+        StringBuilder builder = new StringBuilder(csv.length() * copies).append(csv, 0, bodyStart);
+        for (int i = 0; i < copies; i++) {
+            builder.append(csv, bodyStart, csv.length());
+        }
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
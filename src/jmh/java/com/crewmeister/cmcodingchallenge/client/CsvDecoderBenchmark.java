@@ -0,0 +1,48 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw decoding throughput of the CSV feed. The {@code megabytes} counter reports MB/s in throughput mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvDecoderBenchmark {
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public double megabytes;
+    }
+
+    @Param({"20"})
+    public int copies;
+
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        csv = Fixtures.csv(copies);
+    }
+
+    @Benchmark
+    public long decode(Throughput throughput, Blackhole blackhole) throws IOException {
+        BundesbankCsvDecoder decoder = new BundesbankCsvDecoder((currency, epochDay, rate) -> {
+            blackhole.consume(epochDay);
+            blackhole.consume(rate);
+        });
+        decoder.decode(new ByteArrayInputStream(csv));
+        throughput.megabytes += csv.length / 1_000_000d;
+        return decoder.rates();
+    }
+}
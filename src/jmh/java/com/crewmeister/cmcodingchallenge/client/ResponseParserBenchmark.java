@@ -0,0 +1,42 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.benchmark.Fixtures;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDMX-JSON parsing of the exchange rate (30 series x 120 days) and currency code list payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseParserBenchmark {
+
+    private BundesbankClientResponseParser parser;
+    private String exchangeRatesJson;
+    private String currenciesJson;
+
+    @Setup
+    public void setUp() {
+        parser = new BundesbankClientResponseParser();
+        exchangeRatesJson = Fixtures.string(Fixtures.EXCHANGE_RATES_JSON);
+        currenciesJson = Fixtures.string(Fixtures.CURRENCIES_JSON);
+    }
+
+    @Benchmark
+    public List<ExchangeRateResponse> parseExchangeRates() {
+        return parser.parseExchangeRates(exchangeRatesJson);
+    }
+
+    @Benchmark
+    public List<CurrencyDTO> parseCurrencies() {
+        return parser.parseCurrencies(currenciesJson);
+    }
+}
@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.benchmark.Fixtures;
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full CSV ingest (decode, dedupe, JDBC batch insert) into an empty in-memory H2 table created by the application's
+ * Flyway migrations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvIngestBenchmark {
+
+    private JdbcTemplate jdbcTemplate;
+    private ExchangeRateService exchangeRateService;
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ingest-benchmark;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway flyway = Flyway.configure().dataSource(dataSource).load();
+        flyway.clean();
+        flyway.migrate();
+        exchangeRateService = new ExchangeRateService(null, new ExchangeRateBatchRepository(jdbcTemplate), null, null, null,
+                null, new ForexMetrics(new SimpleMeterRegistry()), new DataSourceTransactionManager(dataSource));
+        csv = Fixtures.csv(1);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE exchange_rates");
+    }
+
+    @Benchmark
+    public long ingestCsv() {
+        Set<Long> storedKeys = new HashSet<>();
+        return exchangeRateService.ingestCsv(new ByteArrayInputStream(csv),
+                (currencyCode, epochDay) -> storedKeys.add(ExchangeRateBatchRepository.key(currencyCode, epochDay)));
+    }
+}
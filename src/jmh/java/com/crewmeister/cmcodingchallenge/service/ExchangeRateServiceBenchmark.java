@@ -0,0 +1,85 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.benchmark.Fixtures;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyConversionRequest;
+import com.crewmeister.cmcodingchallenge.dto.ExchangedCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
+import com.crewmeister.cmcodingchallenge.model.ExchangeRateEntity;
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request hot paths: single CSV line parsing and single or batched EUR conversion from the published rate matrix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeRateServiceBenchmark {
+
+    private static final String CSV_LINE = "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-03-15;1.0892";
+
+    private ExchangeRateService exchangeRateService;
+    private String[] dates;
+    private List<CurrencyConversionRequest> batch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RateMatrixStore rateMatrixStore = new RateMatrixStore(null);
+        exchangeRateService = new ExchangeRateService(null, null, rateMatrixStore, null, null,
+                new FixedPointConverter(RoundingMode.HALF_UP, new String[0]), new ForexMetrics(new SimpleMeterRegistry()), null);
+
+        List<ExchangeRateEntity> rates = Fixtures.string(Fixtures.EXCHANGE_RATES_CSV).lines().skip(1)
+                .map(exchangeRateService::parseCsvLine)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        RateMatrix.Builder builder = RateMatrix.builder().version(1);
+        rates.forEach(rate -> builder.add(rate.getCurrencyCode(), rate.getDate().toEpochDay(), rate.getExchangeRate()));
+        rateMatrixStore.publish(builder.build());
+
+        // Only dates with a USD observation, so the benchmark measures lookups rather than 404 exceptions.
+        dates = rates.stream()
+                .filter(rate -> "USD".equals(rate.getCurrencyCode()))
+                .map(rate -> rate.getDate().toString())
+                .limit(64)
+                .toArray(String[]::new);
+        batch = rates.stream()
+                .filter(rate -> Arrays.asList(dates).contains(rate.getDate().toString()))
+                .limit(1000)
+                .map(rate -> new CurrencyConversionRequest(rate.getCurrencyCode(), rate.getDate().toString(), 1250.75))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ExchangeRateEntity parseCsvLine() {
+        return exchangeRateService.parseCsvLine(CSV_LINE);
+    }
+
+    @Benchmark
+    public ExchangedCurrencyAmountResponse exchangeCurrencyWithEuro() {
+        String date = dates[next++ & (dates.length - 1)];
+        return exchangeRateService.exchangeCurrencyWithEuro("USD", date, 1250.75);
+    }
+
+    /**
+     * One call converting 1000 amounts; compare against 1000 x {@link #exchangeCurrencyWithEuro()}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public List<ExchangedCurrencyAmountResponse> exchangeCurrenciesWithEuro() {
+        return exchangeRateService.exchangeCurrenciesWithEuro(batch);
+    }
+}
@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rounding a converted amount: the previous double division plus {@code BigDecimal.setScale}, the exact
+ * {@code BigDecimal} division, and the fixed-point path that reproduces it. Run with {@code -prof gc} to compare
+ * allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixedPointConverterBenchmark {
+
+    private static final double[] AMOUNTS = {1250.75, 99.99, 0.5, 18_000, 734_512.3, 12.04, 5_000_000, 42.42};
+    private static final double[] RATES = {1.0892, 0.85765, 161.23, 7.4557, 1.4657, 10.9773, 17594.4, 1.0};
+
+    private FixedPointConverter converter;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        converter = new FixedPointConverter(RoundingMode.HALF_UP, new String[0]);
+    }
+
+    @Benchmark
+    public double doubleDivisionThenSetScale() {
+        int i = next++ & 7;
+        return BigDecimal.valueOf(AMOUNTS[i] / RATES[i]).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    @Benchmark
+    public double bigDecimalDivision() {
+        int i = next++ & 7;
+        return converter.convertExactly(AMOUNTS[i], RATES[i], 1.0, 2);
+    }
+
+    @Benchmark
+    public double fixedPoint() {
+        int i = next++ & 7;
+        return converter.convert(AMOUNTS[i], RATES[i], 1.0, "EUR");
+    }
+}
@@ -3,11 +3,20 @@ package com.crewmeister.cmcodingchallenge.client;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
 
+import reactor.core.publisher.Mono;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Stream;
 
 public interface BundesbankClient {
     List<CurrencyDTO> fetchCurrencies();
+    Mono<List<CurrencyDTO>> fetchCurrenciesAsync();
     List<ExchangeRateResponse> fetchExchangeRates(String date);
-    Stream<String> fetchAllExchangeRatesCsv();
+    Mono<List<ExchangeRateResponse>> fetchExchangeRatesAsync(String date);
+    InputStream fetchAllExchangeRatesCsv();
+    InputStream fetchExchangeRatesCsvSince(LocalDate startPeriod);
+    InputStream fetchExchangeRatesCsv(String currencyCode);
+    Mono<Void> downloadAllExchangeRatesCsv(Path target);
 }
@@ -4,37 +4,50 @@ import com.crewmeister.cmcodingchallenge.config.BundesbankConfig;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
 import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cglib.core.internal.Function;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Component
 public class BundesbankClientImpl implements BundesbankClient {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final int CSV_PREFETCH_CHUNKS = 32;
+
     private final WebClient webClient;
     private final BundesbankConfig config;
     private static final Logger logger = LoggerFactory.getLogger(BundesbankClientImpl.class);
 
     private final BundesbankClientResponseParser bundesbankClientResponseParser;
+    private final ForexMetrics metrics;
 
-    public BundesbankClientImpl(WebClient.Builder webClientBuilder, BundesbankConfig config, BundesbankClientResponseParser bundesbankClientResponseParser) {
-        this.webClient = webClientBuilder.baseUrl(config.getBaseUrl()).build();
+    public BundesbankClientImpl(WebClient bundesbankWebClient, BundesbankConfig config, BundesbankClientResponseParser bundesbankClientResponseParser,
+                                ForexMetrics metrics) {
+        this.webClient = bundesbankWebClient;
         this.config = config;
         this.bundesbankClientResponseParser = bundesbankClientResponseParser;
+        this.metrics = metrics;
     }
 
     /**
@@ -42,7 +55,16 @@ public class BundesbankClientImpl implements BundesbankClient {
      */
     @Override
     public List<CurrencyDTO> fetchCurrencies() {
-        return fetchData(config.getCurrenciesEndpoint(), bundesbankClientResponseParser::parseCurrencies);
+        return fetchCurrenciesAsync().block();
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchCurrencies()}.
+     */
+    @Override
+    public Mono<List<CurrencyDTO>> fetchCurrenciesAsync() {
+        return fetchData("currencies", config.getCurrenciesEndpoint(),
+                response -> response.bodyToMono(String.class).map(bundesbankClientResponseParser::parseCurrencies));
     }
 
     /**
@@ -50,72 +72,159 @@ public class BundesbankClientImpl implements BundesbankClient {
      */
     @Override
     public List<ExchangeRateResponse> fetchExchangeRates(String date) {
+        return fetchExchangeRatesAsync(date).block();
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchExchangeRates(String)}; no thread waits for the Bundesbank while it answers.
+     */
+    @Override
+    public Mono<List<ExchangeRateResponse>> fetchExchangeRatesAsync(String date) {
         String url = config.getExchangeRatesEndpoint(date);
-        return fetchData(url, bundesbankClientResponseParser::parseExchangeRates);
+        return fetchData("exchange-rates", url, response -> decodeExchangeRates(response.bodyToFlux(DataBuffer.class)));
     }
 
+    /**
+     * Feeds the body chunks into a streaming SDMX-JSON decoder as they arrive, releasing each buffer right away.
+     */
+    private Mono<List<ExchangeRateResponse>> decodeExchangeRates(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            SdmxExchangeRateDecoder decoder = new SdmxExchangeRateDecoder();
+            return body.doOnNext(buffer -> {
+                try {
+                    decoder.feed(buffer.asByteBuffer());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            }).then(Mono.fromCallable(decoder::finish));
+        });
+    }
+
+
+    @Override
+    public InputStream fetchAllExchangeRatesCsv() {
+        return fetchCsv("dataset", config.getDataSetEndPoint());
+    }
+
+    /**
+     * Fetch only the observations published on or after the given date.
+     */
+    @Override
+    public InputStream fetchExchangeRatesCsvSince(LocalDate startPeriod) {
+        return fetchCsv("dataset-since", config.getDataSetEndPoint(startPeriod));
+    }
+
+    /**
+     * Fetch the full history of a single currency.
+     */
+    @Override
+    public InputStream fetchExchangeRatesCsv(String currencyCode) {
+        return fetchCsv("dataset-currency", config.getDataSetEndPoint(currencyCode));
+    }
 
+    /**
+     * Writes the full dataset to {@code target} as it arrives, without waiting for any consumer.
+     * The transfer is compressed on the wire and decompressed by the shared client before it is written.
+     */
     @Override
-    public Stream<String> fetchAllExchangeRatesCsv() {
+    public Mono<Void> downloadAllExchangeRatesCsv(Path target) {
+        String url = config.getDataSetEndPoint();
+        return timed("dataset-download", Mono.defer(() -> DataBufferUtils.write(webClient.get()
+                                .uri(url)
+                                .accept(TEXT_CSV)
+                                .retrieve()
+                                .bodyToFlux(DataBuffer.class),
+                        target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+                .onErrorMap(e -> !(e instanceof BundesbankException), e -> toBundesbankException(url, e)));
+    }
+
+    /**
+     * Opens the CSV body as a raw byte stream; decoding is left to {@link BundesbankCsvDecoder}.
+     * The download runs on the shared pooled client and only {@link #CSV_PREFETCH_CHUNKS} chunks are buffered
+     * ahead of the reader. Connection and status errors are thrown here, read errors by the stream.
+     * The recorded latency ends with the first chunk; the transfer itself is part of the ingest duration.
+     */
+    private InputStream fetchCsv(String endpoint, String url) {
+        Flux<byte[]> body = webClient.get()
+                .uri(url)
+                .accept(TEXT_CSV)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .map(BundesbankClientImpl::toBytes)
+                .onErrorMap(e -> !(e instanceof BundesbankException), e -> toBundesbankException(url, e));
+        long start = System.nanoTime();
+        String outcome = ForexMetrics.OUTCOME_ERROR;
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI(config.getDataSetEndPoint()))
-                    .GET()
-                    .header("Accept", "text/csv")
-                    .build();
-
-            HttpClient httpClient = HttpClient.newHttpClient();
-            HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
-
-            if (response.statusCode() != 200) {
-                throw new BundesbankException("Unexpected response from Bundesbank: " + response.statusCode(), HttpStatus.BAD_REQUEST);
-            }
-
-            return response.body();
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new BundesbankException("Thread interrupted while fetching exchange rates", HttpStatus.SERVICE_UNAVAILABLE);
-        } catch (URISyntaxException e) {
-            throw new BundesbankException("Invalid Bundesbank API URL: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        } catch (IOException e) {
-            throw new BundesbankException("Network error while fetching exchange rates: " + e.getMessage(), HttpStatus.BAD_GATEWAY);
+            InputStream stream = new ChunkedBodyInputStream(body, CSV_PREFETCH_CHUNKS).awaitFirstChunk();
+            outcome = ForexMetrics.OUTCOME_SUCCESS;
+            return stream;
+        } finally {
+            metrics.upstream(endpoint, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Generic method to fetch data from Bundesbank API.
+     * Copies a network buffer to the heap and releases it, so chunks waiting for the reader hold no pooled memory.
      */
-    private <T> List<T> fetchData(String url, Function<String, List<T>> parser) {
+    private static byte[] toBytes(DataBuffer buffer) {
         try {
-            Map<String, String> headers = config.determineHeaders(url);
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
 
-            String jsonResponse = webClient.get()
-                    .uri(url)
-                    .headers(httpHeaders -> headers.forEach(httpHeaders::set))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            return parser.apply(jsonResponse);
+    /**
+     * Generic method to fetch data from Bundesbank API. Failures are signalled as {@link BundesbankException}.
+     */
+    private <T> Mono<List<T>> fetchData(String endpoint, String url, Function<WebClient.ResponseSpec, Mono<List<T>>> bodyDecoder) {
+        return timed(endpoint, Mono.defer(() -> {
+                    Map<String, String> headers = config.determineHeaders(url);
+                    return bodyDecoder.apply(webClient.get()
+                            .uri(url)
+                            .headers(httpHeaders -> headers.forEach(httpHeaders::set))
+                            .retrieve());
+                })
+                .defaultIfEmpty(Collections.emptyList())
+                .onErrorMap(e -> !(e instanceof BundesbankException), e -> toBundesbankException(url, e)));
+    }
 
-        } catch (WebClientResponseException.NotFound e) {
-            logger.error("Bundesbank API returned 404: {}", url);
-            throw new BundesbankException("Bundesbank API resource not found", HttpStatus.NOT_FOUND);
+    /**
+     * Records the latency of each subscription to the call, tagged by endpoint and outcome. Cancelled calls are not
+     * recorded.
+     */
+    private <T> Mono<T> timed(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnEach(signal -> {
+                if (signal.isOnComplete() || signal.isOnError()) {
+                    String outcome = signal.isOnError() ? ForexMetrics.OUTCOME_ERROR : ForexMetrics.OUTCOME_SUCCESS;
+                    metrics.upstream(endpoint, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        });
+    }
 
-        } catch (WebClientResponseException.BadRequest e) {
+    private BundesbankException toBundesbankException(String url, Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            logger.error("Bundesbank API returned 404: {}", url);
+            return new BundesbankException("Bundesbank API resource not found", HttpStatus.NOT_FOUND);
+        }
+        if (e instanceof WebClientResponseException.BadRequest) {
             logger.error("Bundesbank API returned 400: {}", url);
-            throw new BundesbankException("Invalid request to Bundesbank API", HttpStatus.BAD_REQUEST);
-
-        } catch (WebClientResponseException e) {
-            logger.error("Bundesbank API error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new BundesbankException("Bundesbank API error: " + e.getStatusCode(), e.getStatusCode());
-
-        } catch (Exception e) {
-            logger.error("Unexpected error fetching data: {}", e.getMessage());
-            throw new BundesbankException("Unexpected error occurred while fetching data", HttpStatus.INTERNAL_SERVER_ERROR);
+            return new BundesbankException("Invalid request to Bundesbank API", HttpStatus.BAD_REQUEST);
         }
+        if (e instanceof WebClientResponseException) {
+            WebClientResponseException responseException = (WebClientResponseException) e;
+            logger.error("Bundesbank API error {}: {}", responseException.getStatusCode(), responseException.getResponseBodyAsString());
+            return new BundesbankException("Bundesbank API error: " + responseException.getStatusCode(), responseException.getStatusCode());
+        }
+        logger.error("Unexpected error fetching data: {}", e.getMessage());
+        return new BundesbankException("Unexpected error occurred while fetching data", HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
 }
-
-
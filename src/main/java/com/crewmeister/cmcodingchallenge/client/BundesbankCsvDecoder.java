@@ -0,0 +1,342 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming decoder for the Bundesbank BBEX3 CSV feed, e.g.
+ * {@code BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-04;1.1789}.
+ * <p>
+ * Bytes are scanned directly: the currency, date and rate fields are read in place, dates are turned into epoch
+ * days arithmetically and currency codes are interned, so no objects are created per row. Rows with a missing
+ * value ({@code .}) or that cannot be decoded are counted and skipped. Instances are not thread-safe.
+ */
+public final class BundesbankCsvDecoder {
+
+    /**
+     * Receives every decoded observation.
+     */
+    @FunctionalInterface
+    public interface RateHandler {
+        void onRate(String currencyCode, long epochDay, double rate);
+    }
+
+    private static final int CURRENCY_FIELD = 2;
+    private static final int DATE_FIELD = 7;
+    private static final int VALUE_FIELD = 8;
+    private static final int MAX_LINE_LENGTH = 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int TRANSFER_BUFFER_SIZE = 8 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Mantissas below 2^53 and powers of ten up to 1e22 are exact doubles, so one division is correctly rounded.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final RateHandler handler;
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private final int[] fieldStarts = new int[VALUE_FIELD + 2];
+    private final CurrencyCodeTable currencyCodes = new CurrencyCodeTable();
+    private byte[] transferBuffer;
+    private int lineLength;
+    private boolean lineOverflow;
+    private boolean headerPending;
+    private long bytesRead;
+    private long rates;
+    private long skippedLines;
+
+    public BundesbankCsvDecoder(RateHandler handler) {
+        this(handler, true);
+    }
+
+    /**
+     * @param skipHeader whether the first line holds column names and must be ignored.
+     */
+    public BundesbankCsvDecoder(RateHandler handler, boolean skipHeader) {
+        this.handler = handler;
+        this.headerPending = skipHeader;
+    }
+
+    /**
+     * Decodes the whole stream. The stream is not closed.
+     */
+    public void decode(InputStream in) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            feed(buffer, 0, read);
+        }
+        finish();
+    }
+
+    /**
+     * Decodes the remaining bytes of the buffer. Lines may span several calls.
+     * Direct and memory-mapped buffers are copied out in bulk rather than read byte by byte.
+     */
+    public void feed(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        if (transferBuffer == null) {
+            transferBuffer = new byte[TRANSFER_BUFFER_SIZE];
+        }
+        while (buffer.hasRemaining()) {
+            int length = Math.min(transferBuffer.length, buffer.remaining());
+            buffer.get(transferBuffer, 0, length);
+            feed(transferBuffer, 0, length);
+        }
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(bytes[i]);
+        }
+    }
+
+    /**
+     * Flushes a trailing line without line terminator.
+     */
+    public void finish() {
+        if (lineLength > 0 || lineOverflow) {
+            endLine();
+        }
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    public long rates() {
+        return rates;
+    }
+
+    public long skippedLines() {
+        return skippedLines;
+    }
+
+    private void accept(byte b) {
+        bytesRead++;
+        if (b == '\n') {
+            endLine();
+        } else if (lineLength < MAX_LINE_LENGTH) {
+            line[lineLength++] = b;
+        } else {
+            lineOverflow = true;
+        }
+    }
+
+    private void endLine() {
+        if (headerPending) {
+            headerPending = false;
+        } else if (lineOverflow || !decodeLine()) {
+            skippedLines++;
+        }
+        lineLength = 0;
+        lineOverflow = false;
+    }
+
+    private boolean decodeLine() {
+        int fields = 1;
+        fieldStarts[0] = 0;
+        for (int i = 0; i < lineLength && fields <= VALUE_FIELD; i++) {
+            if (line[i] == ';') {
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        if (fields <= VALUE_FIELD) {
+            return false;
+        }
+        int valueEnd = lineLength;
+        for (int i = fieldStarts[VALUE_FIELD]; i < lineLength; i++) {
+            if (line[i] == ';') {
+                valueEnd = i;
+                break;
+            }
+        }
+
+        String currency = currency(fieldStarts[CURRENCY_FIELD], fieldStarts[CURRENCY_FIELD + 1] - 1);
+        long epochDay = epochDay(fieldStarts[DATE_FIELD], fieldStarts[DATE_FIELD + 1] - 1);
+        double rate = rate(fieldStarts[VALUE_FIELD], valueEnd);
+        if (currency == null || epochDay == Long.MIN_VALUE || Double.isNaN(rate)) {
+            return false;
+        }
+        handler.onRate(currency, epochDay, rate);
+        rates++;
+        return true;
+    }
+
+    private String currency(int start, int end) {
+        start = trimStart(start, end);
+        end = trimEnd(start, end);
+        if (end - start != 3) {
+            return null;
+        }
+        int packed = 0;
+        for (int i = start; i < end; i++) {
+            byte b = line[i];
+            if (b < 'A' || b > 'Z') {
+                return null;
+            }
+            packed = (packed << 8) | b;
+        }
+        return currencyCodes.intern(packed, line, start);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd} into an epoch day, or returns {@link Long#MIN_VALUE} if the field is malformed.
+     */
+    private long epochDay(int start, int end) {
+        start = trimStart(start, end);
+        end = trimEnd(start, end);
+        if (end - start != 10 || line[start + 4] != '-' || line[start + 7] != '-') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return Long.MIN_VALUE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parses a plain decimal number, or returns {@code NaN} for the missing marker {@code .} and malformed input.
+     */
+    private double rate(int start, int end) {
+        start = trimStart(start, end);
+        end = trimEnd(start, end);
+        long mantissa = 0;
+        int digitCount = 0;
+        int scale = -1;
+        for (int i = start; i < end; i++) {
+            byte b = line[i];
+            if (b >= '0' && b <= '9') {
+                if (digitCount == 18) {
+                    return parseSlowly(start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digitCount++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+        if (scale <= 0) {
+            return mantissa;
+        }
+        if (mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[scale];
+        }
+        return parseSlowly(start, end);
+    }
+
+    /**
+     * Fallback for values with more precision than the fast path handles exactly. Never hit by the BBEX3 feed.
+     */
+    private double parseSlowly(int start, int end) {
+        try {
+            return Double.parseDouble(new String(line, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = line[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && isPadding(line[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && isPadding(line[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Whitespace, carriage returns and optional quotes around a field.
+     */
+    private static boolean isPadding(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '"';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date, see Howard Hinnant's {@code days_from_civil}.
+     */
+    static long toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Open-addressed table from packed three letter codes to their interned strings.
+     */
+    private static final class CurrencyCodeTable {
+
+        private static final int CAPACITY = 512;
+        private final int[] keys = new int[CAPACITY];
+        private final String[] values = new String[CAPACITY];
+
+        String intern(int packed, byte[] bytes, int offset) {
+            int slot = (packed * 0x9E3779B9 >>> 23) & (CAPACITY - 1);
+            for (int probe = 0; probe < CAPACITY; probe++) {
+                if (values[slot] == null) {
+                    keys[slot] = packed;
+                    values[slot] = new String(bytes, offset, 3, StandardCharsets.US_ASCII);
+                    return values[slot];
+                }
+                if (keys[slot] == packed) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & (CAPACITY - 1);
+            }
+            return new String(bytes, offset, 3, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Blocking {@link InputStream} view of a reactive response body, for consumers such as
+ * {@link BundesbankCsvDecoder#decode(InputStream)} that pull bytes.
+ * At most {@code prefetch} chunks are requested ahead of the reader, so a slow consumer applies backpressure to the
+ * connection instead of buffering the whole body. Closing the stream cancels the download.
+ */
+final class ChunkedBodyInputStream extends InputStream {
+
+    private final Stream<byte[]> chunks;
+    private final Iterator<byte[]> iterator;
+    private byte[] chunk = new byte[0];
+    private int position;
+
+    ChunkedBodyInputStream(Flux<byte[]> body, int prefetch) {
+        this.chunks = body.toStream(prefetch);
+        this.iterator = chunks.iterator();
+    }
+
+    /**
+     * Waits for the first chunk, so that connection and status errors surface to the caller that opened the stream
+     * rather than to the reader.
+     */
+    ChunkedBodyInputStream awaitFirstChunk() {
+        try {
+            nextChunk();
+        } catch (RuntimeException e) {
+            chunks.close();
+            throw e;
+        }
+        return this;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        chunks.close();
+    }
+
+    private boolean fill() throws IOException {
+        try {
+            while (position == chunk.length) {
+                if (!nextChunk()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private boolean nextChunk() {
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        chunk = iterator.next();
+        position = 0;
+        return true;
+    }
+}
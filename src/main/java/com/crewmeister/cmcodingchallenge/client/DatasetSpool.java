@@ -0,0 +1,121 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Local copy of the full BBEX3 dataset, separating the download from decoding and storing it.
+ * <p>
+ * The body is written to disk at network speed, so a slow database never stalls the TCP read, and is then decoded
+ * from memory-mapped regions. The file is only published under its final name once complete and is kept until an
+ * ingest succeeds, so a failed ingest can be replayed without downloading again.
+ */
+@Component
+public class DatasetSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetSpool.class);
+    private static final String DATASET_FILE = "bbex3-full.csv";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final long DEFAULT_REGION_SIZE = 64L << 20;
+
+    private final BundesbankClient bundesbankClient;
+    private final boolean enabled;
+    private final Path directory;
+    private final long regionSize;
+
+    @Autowired
+    public DatasetSpool(BundesbankClient bundesbankClient,
+                        @Value("${forex.ingest.spool.enabled:true}") boolean enabled,
+                        @Value("${forex.ingest.spool.directory:${java.io.tmpdir}/forex-spool}") Path directory) {
+        this(bundesbankClient, enabled, directory, DEFAULT_REGION_SIZE);
+    }
+
+    DatasetSpool(BundesbankClient bundesbankClient, boolean enabled, Path directory, long regionSize) {
+        this.bundesbankClient = bundesbankClient;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Whether full loads go through the spool instead of decoding the response while it streams.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Downloads the full dataset into the spool, replacing a previous one, and returns the completed file.
+     */
+    public Path download() {
+        Path target = directory.resolve(DATASET_FILE);
+        Path partial = directory.resolve(DATASET_FILE + PARTIAL_SUFFIX);
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            bundesbankClient.downloadAllExchangeRatesCsv(partial).block();
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Spooled {} MB of exchange rates in {} ms",
+                    Files.size(target) >> 20, (System.nanoTime() - start) / 1_000_000);
+            return target;
+        } catch (IOException e) {
+            throw new BundesbankException("Cannot spool exchange rates to " + directory + ": " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * The completed download left by an ingest that did not finish, if any.
+     */
+    public Optional<Path> pendingDataset() {
+        Path target = directory.resolve(DATASET_FILE);
+        return Files.isRegularFile(target) ? Optional.of(target) : Optional.empty();
+    }
+
+    /**
+     * Feeds the file to the decoder one memory-mapped region at a time; lines spanning two regions are joined by
+     * the decoder.
+     */
+    public void decode(Path file, BundesbankCsvDecoder decoder) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += regionSize) {
+                MappedByteBuffer region =
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position));
+                decoder.feed(region);
+            }
+            decoder.finish();
+        }
+    }
+
+    /**
+     * Removes a dataset once it has been stored.
+     */
+    public void discard(Path file) {
+        deleteQuietly(file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete spooled file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.crewmeister.cmcodingchallenge.util.BundesbankConstants.*;
+
+/**
+ * Push-based, single pass decoder for SDMX-JSON exchange rate responses.
+ * <p>
+ * Body chunks are fed as they arrive from the network into Jackson's non-blocking parser, so the payload is never
+ * materialized as a String or a DOM. Because the Bundesbank sends {@code dataSets} before {@code structure},
+ * observations are buffered in primitive columns (series currency index, time period index, rate) and resolved
+ * against the dimension values in {@link #finish()}. Instances are single-use and not thread-safe.
+ */
+public final class SdmxExchangeRateDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_DEPTH = 32;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    // Container stack: current field name of object frames, current element index of array frames.
+    private final String[] names = new String[MAX_DEPTH];
+    private final int[] indices = new int[MAX_DEPTH];
+    private final boolean[] arrays = new boolean[MAX_DEPTH];
+    private int top = -1;
+
+    private int[] seriesCurrencies = new int[256];
+    private int[] periods = new int[256];
+    private double[] rates = new double[256];
+    private int observationCount;
+
+    private final List<String> dimensionIds = new ArrayList<>();
+    private final List<List<String>> dimensionValues = new ArrayList<>();
+    private final List<String> timePeriods = new ArrayList<>();
+
+    private String currentSeriesKey;
+    private int currentSeriesCurrency;
+
+    public SdmxExchangeRateDecoder() {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Consumes the remaining bytes of the buffer, decoding every token that is complete.
+     */
+    public void feed(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            feed(buffer.array(), start, buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            feed(chunk, 0, length);
+        }
+    }
+
+    public void feed(byte[] bytes, int offset, int length) throws IOException {
+        feeder.feedInput(bytes, offset, offset + length);
+        drain();
+    }
+
+    /**
+     * Signals the end of the body and resolves the buffered observations.
+     */
+    public List<ExchangeRateResponse> finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+        parser.close();
+
+        List<String> currencies = currencyValues();
+        List<ExchangeRateResponse> exchangeRates = new ArrayList<>(observationCount);
+        for (int i = 0; i < observationCount; i++) {
+            int period = periods[i];
+            if (period >= timePeriods.size()) {
+                continue;
+            }
+            int currency = seriesCurrencies[i];
+            String isoCode = currency < currencies.size() ? currencies.get(currency) : String.valueOf(currency);
+            exchangeRates.add(new ExchangeRateResponse(isoCode, rates[i], timePeriods.get(period)));
+        }
+        return exchangeRates;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case FIELD_NAME:
+                    names[top] = parser.getCurrentName();
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    advanceIndex();
+                    push(token == JsonToken.START_ARRAY);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    top--;
+                    break;
+                default:
+                    advanceIndex();
+                    onScalar(token);
+            }
+        }
+    }
+
+    private void advanceIndex() {
+        if (top >= 0 && arrays[top]) {
+            indices[top]++;
+        }
+    }
+
+    private void push(boolean array) throws IOException {
+        if (top + 1 == MAX_DEPTH) {
+            throw new IOException("SDMX-JSON nesting exceeds " + MAX_DEPTH + " levels");
+        }
+        top++;
+        arrays[top] = array;
+        indices[top] = -1;
+        names[top] = null;
+    }
+
+    private void onScalar(JsonToken token) throws IOException {
+        if (isObservationValue()) {
+            onObservation(token);
+        } else if (top == 5 && ID.equals(names[5]) && isStructureDimension(SERIES)) {
+            addSeriesDimension(indices[4], parser.getText());
+        } else if (top == 7 && ID.equals(names[7]) && VALUES.equals(names[5]) && isStructureDimension(SERIES)) {
+            seriesDimensionValues(indices[4]).add(parser.getText());
+        } else if (top == 7 && ID.equals(names[7]) && VALUES.equals(names[5]) && isStructureDimension(OBSERVATION)
+                && indices[4] == 0) {
+            timePeriods.add(parser.getText());
+        }
+    }
+
+    /**
+     * {@code data.dataSets[0].series.<key>.observations.<period>[0]}
+     */
+    private boolean isObservationValue() {
+        return top == 7 && arrays[7] && indices[7] == 0
+                && OBSERVATIONS.equals(names[5]) && SERIES.equals(names[3])
+                && indices[2] == 0 && DATA_SETS.equals(names[1]) && DATA.equals(names[0]);
+    }
+
+    /**
+     * {@code data.structure.dimensions.<kind>[i]...}
+     */
+    private boolean isStructureDimension(String kind) {
+        return arrays[4] && kind.equals(names[3]) && DIMENSIONS.equals(names[2])
+                && STRUCTURE.equals(names[1]) && DATA.equals(names[0]);
+    }
+
+    private void onObservation(JsonToken token) throws IOException {
+        double rate;
+        if (token == JsonToken.VALUE_STRING) {
+            rate = parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } else if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            rate = parser.getDoubleValue();
+        } else {
+            return;
+        }
+        if (Double.isNaN(rate)) {
+            return;
+        }
+        String seriesKey = names[4];
+        // Field names are canonicalized by Jackson, so a reference check is enough to detect a new series.
+        if (seriesKey != currentSeriesKey) {
+            currentSeriesKey = seriesKey;
+            currentSeriesCurrency = currencyComponent(seriesKey);
+        }
+        int period = parsePeriodIndex(names[6]);
+        if (currentSeriesCurrency < 0 || period < 0) {
+            return;
+        }
+        if (observationCount == rates.length) {
+            int capacity = observationCount * 2;
+            seriesCurrencies = Arrays.copyOf(seriesCurrencies, capacity);
+            periods = Arrays.copyOf(periods, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+        }
+        seriesCurrencies[observationCount] = currentSeriesCurrency;
+        periods[observationCount] = period;
+        rates[observationCount] = rate;
+        observationCount++;
+    }
+
+    private void addSeriesDimension(int index, String id) {
+        while (dimensionIds.size() <= index) {
+            dimensionIds.add(null);
+        }
+        dimensionIds.set(index, id);
+    }
+
+    private List<String> seriesDimensionValues(int index) {
+        while (dimensionValues.size() <= index) {
+            dimensionValues.add(new ArrayList<>());
+        }
+        return dimensionValues.get(index);
+    }
+
+    private List<String> currencyValues() {
+        int index = dimensionIds.indexOf(STD_CURRENCY_KEY);
+        return index >= 0 && index < dimensionValues.size() ? dimensionValues.get(index) : new ArrayList<>();
+    }
+
+    /**
+     * Second component of a series key such as {@code 0:12:0:0:0:0}, or -1 if absent.
+     */
+    private static int currencyComponent(String seriesKey) {
+        int separator = seriesKey.indexOf(':');
+        if (separator < 0) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = separator + 1; i < seriesKey.length() && seriesKey.charAt(i) != ':'; i++) {
+            char c = seriesKey.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private static int parsePeriodIndex(String name) {
+        if (name == null || name.isEmpty()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses a plain decimal without creating a String; returns {@code NaN} for anything else.
+     */
+    private static double parseDecimal(char[] chars, int offset, int length) {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return parseSlowly(chars, offset, length);
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (digits > 18 || mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return parseSlowly(chars, offset, length);
+        }
+        return scale <= 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+    }
+
+    private static double parseSlowly(char[] chars, int offset, int length) {
+        try {
+            return Double.parseDouble(new String(chars, offset, length).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
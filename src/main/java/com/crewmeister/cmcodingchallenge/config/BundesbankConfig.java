@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,6 +43,20 @@ public class BundesbankConfig {
         return bundesbankApiUrl;
     }
 
+    /**
+     * Dataset endpoint restricted to observations on or after the given date.
+     */
+    public String getDataSetEndPoint(LocalDate startPeriod) {
+        String separator = bundesbankApiUrl.contains("?") ? "&" : "?";
+        return bundesbankApiUrl + separator + "startPeriod=" + startPeriod;
+    }
+
+    /**
+     * Dataset endpoint restricted to the series of one currency, e.g. {@code D.USD.EUR.BB.AC.000}.
+     */
+    public String getDataSetEndPoint(String currencyCode) {
+        return bundesbankApiUrl.replace("/D..EUR.", "/D." + currencyCode + ".EUR.");
+    }
 
     public String getExchangeRatesEndpoint(String date) {
         String seriesKey = "D..EUR.BB.AC.000";
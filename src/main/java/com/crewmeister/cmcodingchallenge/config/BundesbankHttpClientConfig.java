@@ -0,0 +1,61 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * The single HTTP client used for every Bundesbank call, JSON and CSV alike.
+ * Connections, TLS sessions and event loops are pooled for the lifetime of the application; HTTP/2 is negotiated
+ * over TLS when the server offers it, and gzip/deflate responses are decompressed transparently.
+ */
+@Configuration
+public class BundesbankHttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider bundesbankConnectionProvider(
+            @Value("${bundesbank.http.max-connections:16}") int maxConnections,
+            @Value("${bundesbank.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${bundesbank.http.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout) {
+        return ConnectionProvider.builder("bundesbank")
+                .maxConnections(maxConnections)
+                .maxIdleTime(maxIdleTime)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+    }
+
+    /**
+     * @param http2       negotiate HTTP/2 via ALPN, falling back to HTTP/1.1; requires an https base URL.
+     * @param readTimeout longest silence allowed while waiting for or reading a response, not a limit on the
+     *                    whole transfer, so the multi-megabyte dataset download is not cut off.
+     */
+    @Bean
+    public HttpClient bundesbankHttpClient(
+            ConnectionProvider bundesbankConnectionProvider,
+            @Value("${bundesbank.http.http2:true}") boolean http2,
+            @Value("${bundesbank.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${bundesbank.http.read-timeout:30s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(bundesbankConnectionProvider)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(readTimeout);
+        return http2 ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure() : httpClient;
+    }
+
+    @Bean
+    public WebClient bundesbankWebClient(WebClient.Builder webClientBuilder, HttpClient bundesbankHttpClient,
+                                         BundesbankConfig config) {
+        return webClientBuilder.clone()
+                .baseUrl(config.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(bundesbankHttpClient))
+                .build();
+    }
+}
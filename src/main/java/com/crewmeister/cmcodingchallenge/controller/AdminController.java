@@ -0,0 +1,79 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.dto.ApiResponse;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Operator endpoints that start expensive Bundesbank downloads. Every call must carry
+ * {@code Authorization: Bearer <forex.admin.token>}; without a configured token the endpoints are disabled.
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ExchangeRateService exchangeRateService;
+    private final byte[] adminToken;
+
+    public AdminController(ExchangeRateService exchangeRateService, @Value("${forex.admin.token:}") String adminToken) {
+        this.exchangeRateService = exchangeRateService;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts a full reload of the exchange rate history in the background.
+     */
+    @PostMapping("/fx-exchange/reload")
+    public ResponseEntity<ApiResponse<Object>> reloadExchangeRates(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authorize(authorization);
+        if (!exchangeRateService.startReload()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "An exchange rate update is already running.");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>(true, "Full exchange rate reload started."));
+    }
+
+    /**
+     * Stores the dataset kept on disk by a failed full reload, without downloading it again.
+     */
+    @PostMapping("/fx-exchange/replay")
+    public ResponseEntity<ApiResponse<Object>> replayExchangeRates(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authorize(authorization);
+        if (!exchangeRateService.hasSpooledExchangeRates()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No spooled exchange rate dataset to replay.");
+        }
+        if (!exchangeRateService.startReplay()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "An exchange rate update is already running.");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>(true, "Replay of the spooled exchange rate dataset started."));
+    }
+
+    private void authorize(String authorization) {
+        if (adminToken.length == 0) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "The admin API is disabled.");
+        }
+        byte[] presented = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        // Constant-time comparison, so response timing does not reveal how much of the token matched.
+        if (!MessageDigest.isEqual(presented, adminToken)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "A valid admin token is required.");
+        }
+    }
+}
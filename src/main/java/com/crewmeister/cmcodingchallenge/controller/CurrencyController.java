@@ -1,15 +1,15 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
-import com.crewmeister.cmcodingchallenge.dto.ApiResponse;
-import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
 import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.store.CurrencyCatalog;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -23,11 +23,17 @@ public class CurrencyController {
 
     /**
      *  Returns a list of available currency codes.
+     *  The body is prerendered by the catalog; polling clients with its ETag get a 304 without a body.
      */
     @GetMapping(path = "/currencies", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<List<CurrencyDTO>>> getCurrencies() {
-
-        return ResponseEntity.ok(new ApiResponse<>(currencyService.getAllCurrencies()));
-
+    public ResponseEntity<byte[]> getCurrencies(WebRequest request) {
+        CurrencyCatalog catalog = currencyService.getCatalog();
+        if (request.checkNotModified(catalog.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.body());
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,41 @@
 package com.crewmeister.cmcodingchallenge.controller;
 
 import com.crewmeister.cmcodingchallenge.dto.ApiResponse;
-import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
+import com.crewmeister.cmcodingchallenge.dto.CrossCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyConversionRequest;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePage;
 import com.crewmeister.cmcodingchallenge.dto.ExchangedCurrencyAmountResponse;
-import com.crewmeister.cmcodingchallenge.model.ExchangeRateEntity;
 import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
-import org.springframework.data.domain.Page;
+import com.crewmeister.cmcodingchallenge.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.store.SerializedResponseCache;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -21,45 +43,207 @@ import java.util.List;
 public class ExchangeRateController {
 
     private final ExchangeRateService exchangeRateService;
+    private final SerializedResponseCache responseCache;
+    private final RateHttpCaching httpCaching;
+    private final ObjectReader conversionRequestReader;
+    private final JsonFactory jsonFactory;
 
-    public ExchangeRateController(ExchangeRateService exchangeRateService) {
+    public ExchangeRateController(ExchangeRateService exchangeRateService, SerializedResponseCache responseCache,
+                                  RateHttpCaching httpCaching, ObjectMapper objectMapper) {
         this.exchangeRateService = exchangeRateService;
+        this.responseCache = responseCache;
+        this.httpCaching = httpCaching;
+        this.conversionRequestReader = objectMapper.readerFor(CurrencyConversionRequest.class);
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     /**
-     * Fetch FX exchange rates for given date.
+     * Fetch FX exchange rates for given date, or for the latest business day before it with {@code previousBusinessDay}.
+     * Returned as a {@link Mono}, so on a snapshot miss the servlet thread is released while the Bundesbank answers.
+     * Serialized bodies are cached per snapshot version, so hot dates are answered by copying bytes,
+     * and clients revalidating with a current ETag get a 304 before any of that runs.
      */
-    @GetMapping("/fx-exchange")
-    public ResponseEntity<?> getExchangeRates(@RequestParam String date) {
-        List<ExchangeRateResponse> rates = exchangeRateService.getFxExchangeRatesOnDate(date);
-        return ResponseEntity.ok(new ApiResponse<>(rates));
+    @GetMapping(path = "/fx-exchange", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getExchangeRates(
+            @RequestParam String date,
+            @RequestParam(defaultValue = "false") boolean previousBusinessDay,
+            WebRequest request) {
+        if (httpCaching.checkNotModified(request)) {
+            return Mono.just(notModified());
+        }
+        String cacheKey = "fx-exchange?date=" + date + "&previousBusinessDay=" + previousBusinessDay;
+        return responseCache.get(cacheKey, date,
+                        () -> exchangeRateService.getFxExchangeRatesOnDateAsync(date, previousBusinessDay).map(ApiResponse::new),
+                        response -> response.getData().get(0).getDate())
+                .map(rendered -> ResponseEntity.ok()
+                        .headers(httpCaching.headersFor(date, rendered.date()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(rendered.body()));
+    }
+
+    /**
+     * Streams the EUR-FX rates of one currency between two optional dates, oldest first.
+     * The body has the same shape as {@code /fx-exchange} but is written straight from the snapshot.
+     */
+    @GetMapping(path = "/fx-exchange/{currency}/series", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getExchangeRateSeries(
+            @PathVariable String currency,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            WebRequest request) {
+        if (httpCaching.checkNotModified(request)) {
+            return notModified();
+        }
+        RateSeries series = exchangeRateService.getExchangeRateSeries(currency, from, to);
+        return ResponseEntity.ok()
+                .headers(httpCaching.headersFor(to))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeSeries(series, out));
     }
 
     @GetMapping("/currency-exchange-euro")
     public ResponseEntity<?> convertToEUR(
             @RequestParam String currency,
             @RequestParam String date,
-            @RequestParam double amount
+            @RequestParam double amount,
+            @RequestParam(defaultValue = "false") boolean previousBusinessDay,
+            WebRequest request
     ) {
-        ExchangedCurrencyAmountResponse response = exchangeRateService.exchangeCurrencyWithEuro(currency, date, amount);
-        return ResponseEntity.ok(new ApiResponse<>(response));
+        if (httpCaching.checkNotModified(request)) {
+            return notModified();
+        }
+        ExchangedCurrencyAmountResponse response =
+                exchangeRateService.exchangeCurrencyWithEuro(currency, date, amount, previousBusinessDay);
+        return ResponseEntity.ok()
+                .headers(httpCaching.headersFor(date, response.getDate()))
+                .body(new ApiResponse<>(response));
+    }
+
+    /**
+     * Converts an amount between any two currencies, triangulating through their EUR rates of the same day.
+     */
+    @GetMapping("/currency-exchange")
+    public ResponseEntity<?> convert(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam String date,
+            @RequestParam double amount,
+            @RequestParam(defaultValue = "false") boolean previousBusinessDay,
+            WebRequest request
+    ) {
+        if (httpCaching.checkNotModified(request)) {
+            return notModified();
+        }
+        CrossCurrencyAmountResponse response =
+                exchangeRateService.exchangeCurrency(from, to, date, amount, previousBusinessDay);
+        return ResponseEntity.ok()
+                .headers(httpCaching.headersFor(date, response.getDate()))
+                .body(new ApiResponse<>(response));
+    }
+
+    /**
+     * Full N×N cross-rate table, EUR included, of every currency quoted on the given date.
+     * Cached serialized per snapshot version like {@code /fx-exchange}.
+     */
+    @GetMapping(path = "/fx-exchange/cross-rates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getCrossRates(
+            @RequestParam String date,
+            @RequestParam(defaultValue = "false") boolean previousBusinessDay,
+            WebRequest request) {
+        if (httpCaching.checkNotModified(request)) {
+            return Mono.just(notModified());
+        }
+        String cacheKey = "cross-rates?date=" + date + "&previousBusinessDay=" + previousBusinessDay;
+        return responseCache.get(cacheKey, date, () -> Mono.fromCallable(
+                        () -> new ApiResponse<>(exchangeRateService.getCrossRateTable(date, previousBusinessDay))),
+                        response -> response.getData().getDate())
+                .map(rendered -> ResponseEntity.ok()
+                        .headers(httpCaching.headersFor(date, rendered.date()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(rendered.body()));
+    }
+
+    /**
+     * Converts a JSON array of (currency, date, amount) entries to EUR, answering in request order.
+     * The array is parsed element by element, so a body over the batch limit is rejected with 413 as soon as
+     * the first excess entry is reached instead of after binding all of it.
+     */
+    @PostMapping(path = "/currency-exchange-euro/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<List<ExchangedCurrencyAmountResponse>>> convertBatchToEUR(InputStream body) {
+        List<CurrencyConversionRequest> requests = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of conversion requests.");
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new EOFException("Unterminated JSON array");
+                }
+                addConversionRequest(requests, conversionRequestReader.readValue(parser));
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed JSON conversion request.");
+        }
+        return ResponseEntity.ok(new ApiResponse<>(exchangeRateService.exchangeCurrenciesWithEuro(requests)));
     }
 
     /**
-     * Get all available EUR-FX exchange rates as a paginated collection.
+     * Same as {@link #convertBatchToEUR(InputStream)} for a newline-delimited JSON body with one entry per line.
+     */
+    @PostMapping(path = "/currency-exchange-euro/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiResponse<List<ExchangedCurrencyAmountResponse>>> convertNdjsonBatchToEUR(InputStream body) {
+        List<CurrencyConversionRequest> requests = new ArrayList<>();
+        try (MappingIterator<CurrencyConversionRequest> entries = conversionRequestReader.readValues(body)) {
+            while (entries.hasNextValue()) {
+                addConversionRequest(requests, entries.nextValue());
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed NDJSON conversion request.");
+        }
+        return ResponseEntity.ok(new ApiResponse<>(exchangeRateService.exchangeCurrenciesWithEuro(requests)));
+    }
+
+    private static void addConversionRequest(List<CurrencyConversionRequest> requests, CurrencyConversionRequest request) {
+        if (requests.size() == ExchangeRateService.MAX_CONVERSION_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + ExchangeRateService.MAX_CONVERSION_BATCH_SIZE + " conversions are allowed per request.");
+        }
+        requests.add(request);
+    }
+
+    /**
+     * Get all available EUR-FX exchange rates as a collection, page by page in (date, currency) order.
+     * Pass the {@code nextCursor} of a page as {@code cursor} to get the following one.
      */
     @GetMapping("/fx-exchange-dataset")
-    public ResponseEntity<ApiResponse<Page<ExchangeRateEntity>>> paginatedExchangeRates(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<ApiResponse<ExchangeRatePage>> paginatedExchangeRates(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "200") int size) {
+        return ResponseEntity.ok(new ApiResponse<>(exchangeRateService.getExchangeRatePage(cursor, size)));
+    }
 
-        Page<ExchangeRateEntity> paginatedRates = exchangeRateService.fetchAndStoreAllExchangeRatesCsv(page, size);
+    /**
+     * 304 answer; the validators were already set by {@link RateHttpCaching#checkNotModified(WebRequest)}.
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
 
-        if (page >= paginatedRates.getTotalPages() && paginatedRates.getTotalPages() > 0) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Page number exceeds available pages : " + (paginatedRates.getTotalPages() - 1));
+    private void writeSeries(RateSeries series, OutputStream out) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("data");
+            for (int i = 0; i < series.size(); i++) {
+                json.writeStartObject();
+                json.writeStringField("currencyCode", series.currencyCode());
+                json.writeNumberField("exchangeRate", series.rate(i));
+                json.writeStringField("date", LocalDate.ofEpochDay(series.epochDay(i)).toString());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
         }
-        return ResponseEntity.ok(new ApiResponse<>(paginatedRates));
     }
 
 }
@@ -0,0 +1,87 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conditional request handling and cache headers for responses rendered from the published rate snapshot.
+ * The strong ETag is the snapshot's content fingerprint, so it is identical on every instance serving the same data.
+ */
+@Component
+public class RateHttpCaching {
+
+    // Rates of a past day are final once a completed ingest has covered it.
+    private static final String IMMUTABLE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    private final RateMatrixStore rateMatrixStore;
+
+    public RateHttpCaching(RateMatrixStore rateMatrixStore) {
+        this.rateMatrixStore = rateMatrixStore;
+    }
+
+    /**
+     * Checks {@code If-None-Match} and {@code If-Modified-Since} against the current snapshot. When this returns
+     * {@code true} the 304 status and validators are already set and the handler must not render a body.
+     * Otherwise the validators are set on the response for the client's next request.
+     */
+    public boolean checkNotModified(WebRequest request) {
+        return request.checkNotModified(etag(), rateMatrixStore.lastModified());
+    }
+
+    public String etag() {
+        return "\"" + Long.toHexString(rateMatrixStore.current().fingerprint()) + "\"";
+    }
+
+    /**
+     * Cache headers for a successful response about the given day, or about all days up to it: immutable for past
+     * days that a completed ingest has covered, see {@link RateMatrix#ingestedThrough()}, revalidated otherwise.
+     * Later days may still get rates from the next refresh or an on-demand fetch.
+     */
+    public HttpHeaders headersFor(LocalDate day) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, isFinal(day) ? IMMUTABLE : REVALIDATE);
+        return headers;
+    }
+
+    /**
+     * Same as {@link #headersFor(LocalDate)} for a raw date parameter; unparsable dates are never immutable.
+     */
+    public HttpHeaders headersFor(String date) {
+        return headersFor(parse(date));
+    }
+
+    /**
+     * Cache headers for an answer with the rates of {@code servedDate} to a request for {@code requestedDate}.
+     * Only the rates of exactly the requested past day are immutable. A previous-business-day fallback is
+     * revalidated against the ETag, since the requested day may still get rates of its own.
+     */
+    public HttpHeaders headersFor(String requestedDate, String servedDate) {
+        LocalDate served = parse(servedDate);
+        return headersFor(served != null && served.equals(parse(requestedDate)) ? served : null);
+    }
+
+    private static LocalDate parse(String date) {
+        try {
+            return date == null ? null : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            // Rejected by the service; nothing to cache.
+            return null;
+        }
+    }
+
+    private boolean isFinal(LocalDate day) {
+        return day != null && day.isBefore(LocalDate.now(ZoneOffset.UTC))
+                && day.toEpochDay() <= rateMatrixStore.current().ingestedThrough();
+    }
+}
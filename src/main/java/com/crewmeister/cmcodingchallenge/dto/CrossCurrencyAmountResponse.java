@@ -0,0 +1,21 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An amount converted between two currencies; {@code exchangeRate} is the number of {@code to} units per {@code from} unit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrossCurrencyAmountResponse {
+
+    private String from;
+    private String to;
+    private String date;
+    private double originalAmount;
+    private double exchangeRate;
+    private double convertedAmount;
+}
@@ -0,0 +1,21 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cross rates between every pair of currencies quoted on one day.
+ * {@code rates[i][j]} is the number of {@code currencies[j]} units per {@code currencies[i]} unit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrossRateTable {
+
+    private String date;
+    private List<String> currencies;
+    private double[][] rates;
+}
@@ -0,0 +1,15 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyConversionRequest {
+
+    private String currency;
+    private String date;
+    private Double amount;
+}
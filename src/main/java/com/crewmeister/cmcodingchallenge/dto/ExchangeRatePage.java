@@ -0,0 +1,21 @@
+package com.crewmeister.cmcodingchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of the exchange rate history. {@code nextCursor} is absent on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExchangeRatePage {
+
+    private List<ExchangeRateResponse> content;
+    private String nextCursor;
+}
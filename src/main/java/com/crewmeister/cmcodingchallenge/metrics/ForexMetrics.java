@@ -0,0 +1,130 @@
+package com.crewmeister.cmcodingchallenge.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the rate lookup and ingest paths, exported through {@code /actuator/prometheus}.
+ * Meters on hot paths are registered once here, so recording is a plain increment without a registry lookup.
+ * Hit ratios are derived in the monitoring system from the {@code result} tag, e.g.
+ * {@code rate(forex_rates_lookups_total{result="snapshot"}[5m]) / rate(forex_rates_lookups_total[5m])}.
+ */
+@Component
+public class ForexMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Counter snapshotLookups;
+    private final Counter knownEmptyLookups;
+    private final Counter upstreamLookups;
+    private final Counter responseCacheHits;
+    private final Counter responseCacheMisses;
+    private final Counter rowsParsed;
+    private final Counter rowsSkipped;
+    private final Counter rowsInserted;
+    private final Timer updateWindow;
+    private final LongTaskTimer activeUpdate;
+
+    public ForexMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.snapshotLookups = lookupCounter("snapshot");
+        this.knownEmptyLookups = lookupCounter("known-empty");
+        this.upstreamLookups = lookupCounter("upstream");
+        this.responseCacheHits = responseCacheCounter("hit");
+        this.responseCacheMisses = responseCacheCounter("miss");
+        this.rowsParsed = rowsCounter("parsed");
+        this.rowsSkipped = rowsCounter("skipped");
+        this.rowsInserted = rowsCounter("inserted");
+        this.updateWindow = Timer.builder("forex.ingest.update.window")
+                .description("Time during which an exchange rate update held the update lock")
+                .register(registry);
+        this.activeUpdate = LongTaskTimer.builder("forex.ingest.update.active")
+                .description("Exchange rate update currently holding the update lock")
+                .register(registry);
+    }
+
+    /**
+     * Latency of a Bundesbank call, with percentile histograms so that quantiles can be aggregated across instances.
+     */
+    public Timer upstream(String endpoint, String outcome) {
+        return Timer.builder("bundesbank.client.requests")
+                .description("Latency of Bundesbank API calls")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Duration of a whole ingest run, from download to the published snapshot.
+     */
+    public Timer ingest(String mode) {
+        return Timer.builder("forex.ingest.duration")
+                .description("Duration of exchange rate ingest runs")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    public void recordIngest(String mode, Runnable ingest) {
+        ingest(mode).record(ingest);
+    }
+
+    /**
+     * Times an update for as long as it holds the update lock; while it runs it is visible as an active task.
+     */
+    public void recordUpdateWindow(Runnable update) {
+        activeUpdate.record(() -> updateWindow.record(update));
+    }
+
+    public void recordIngestedRows(long parsed, long skipped, long inserted) {
+        rowsParsed.increment(parsed);
+        rowsSkipped.increment(skipped);
+        rowsInserted.increment(inserted);
+    }
+
+    public void snapshotLookup() {
+        snapshotLookups.increment();
+    }
+
+    public void knownEmptyLookup() {
+        knownEmptyLookups.increment();
+    }
+
+    public void upstreamLookup() {
+        upstreamLookups.increment();
+    }
+
+    public void responseCacheHit() {
+        responseCacheHits.increment();
+    }
+
+    public void responseCacheMiss() {
+        responseCacheMisses.increment();
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("forex.rates.lookups")
+                .description("Exchange rate lookups by date, by where they were answered")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter responseCacheCounter(String result) {
+        return Counter.builder("forex.response.cache")
+                .description("Serialized response cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter rowsCounter(String result) {
+        return Counter.builder("forex.ingest.rows")
+                .description("Exchange rate rows seen by ingests")
+                .tag("result", result)
+                .register(registry);
+    }
+}
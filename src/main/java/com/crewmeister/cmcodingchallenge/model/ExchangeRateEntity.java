@@ -5,27 +5,30 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDate;
+
+/**
+ * One EUR-FX observation. The primary key (currency_code, date) doubles as the unique lookup index;
+ * the secondary (date, currency_code) index serves per-day reads and keyset pagination.
+ * The schema is owned by the Flyway migrations in {@code db/migration}.
+ */
 @Entity
-@Table(name = "exchange_rates")
+@Table(name = "exchange_rates", indexes = @Index(name = "idx_exchange_rates_date_currency", columnList = "date, currencyCode"))
+@IdClass(ExchangeRateId.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExchangeRateEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
+    @Column(length = 3)
     private String currencyCode;
+
+    @Column(length = 3)
     private String targetCurrency;
-    private String date;
-    private double exchangeRate;
 
-    public ExchangeRateEntity(String currencyCode, String targetCurrency, String date, double exchangeRate) {
-        this.currencyCode = currencyCode;
-        this.targetCurrency = targetCurrency;
-        this.date = date;
-        this.exchangeRate = exchangeRate;
-    }
-}
+    @Id
+    private LocalDate date;
 
+    private double exchangeRate;
+}
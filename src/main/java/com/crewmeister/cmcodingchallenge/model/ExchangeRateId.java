@@ -0,0 +1,20 @@
+package com.crewmeister.cmcodingchallenge.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Natural key of {@link ExchangeRateEntity}: one rate per currency and day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateId implements Serializable {
+
+    private String currencyCode;
+    private LocalDate date;
+}
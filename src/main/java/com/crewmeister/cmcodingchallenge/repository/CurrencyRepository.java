@@ -6,5 +6,4 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CurrencyRepository extends JpaRepository<CurrencyEntity, String> {
-    boolean existsByCode(String code);
 }
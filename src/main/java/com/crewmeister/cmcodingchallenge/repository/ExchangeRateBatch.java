@@ -0,0 +1,53 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+/**
+ * Fixed-capacity, reusable column buffer of rates waiting to be inserted.
+ */
+public class ExchangeRateBatch {
+
+    private final String[] currencyCodes;
+    private final long[] epochDays;
+    private final double[] rates;
+    private int size;
+
+    public ExchangeRateBatch(int capacity) {
+        this.currencyCodes = new String[capacity];
+        this.epochDays = new long[capacity];
+        this.rates = new double[capacity];
+    }
+
+    public void add(String currencyCode, long epochDay, double rate) {
+        currencyCodes[size] = currencyCode;
+        epochDays[size] = epochDay;
+        rates[size] = rate;
+        size++;
+    }
+
+    public boolean isFull() {
+        return size == rates.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public String currencyCode(int index) {
+        return currencyCodes[index];
+    }
+
+    public long epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public double rate(int index) {
+        return rates[index];
+    }
+}
@@ -0,0 +1,160 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC access for bulk ingestion, bypassing the per-entity overhead of Hibernate.
+ */
+@Repository
+public class ExchangeRateBatchRepository {
+
+    private static final String SELECT_KEYS_SQL = "SELECT currency_code, date FROM exchange_rates";
+    private static final String SELECT_RATES_SQL = "SELECT currency_code, date, exchange_rate FROM exchange_rates";
+    private static final String SELECT_KEYS_SINCE_SQL = "SELECT currency_code, date FROM exchange_rates WHERE date >= ?";
+    private static final String SELECT_LATEST_DATES_SQL =
+            "SELECT currency_code, MAX(date) FROM exchange_rates GROUP BY currency_code";
+    private static final String SELECT_SYNCED_THROUGH_SQL = "SELECT currency_code, synced_through FROM rate_sync_state";
+    private static final String MARK_SYNCED_SQL =
+            "MERGE INTO rate_sync_state s USING (SELECT CAST(? AS VARCHAR(3)) currency_code, CAST(? AS DATE) synced_through) n"
+                    + " ON s.currency_code = n.currency_code"
+                    + " WHEN MATCHED THEN UPDATE SET s.synced_through = GREATEST(s.synced_through, n.synced_through)"
+                    + " WHEN NOT MATCHED THEN INSERT (currency_code, synced_through) VALUES (n.currency_code, n.synced_through)";
+    private static final String INSERT_SQL =
+            "INSERT INTO exchange_rates (currency_code, target_currency, date, exchange_rate) VALUES (?, ?, ?, ?)";
+    private static final String MERGE_SQL =
+            "MERGE INTO exchange_rates (currency_code, target_currency, date, exchange_rate) KEY (currency_code, date)"
+                    + " VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExchangeRateBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads the (currency, date) key of every stored rate, packed by {@link #key(String, long)}.
+     */
+    public Set<Long> findAllKeys() {
+        Set<Long> keys = new HashSet<>();
+        jdbcTemplate.query(SELECT_KEYS_SQL, rs -> {
+            keys.add(key(rs.getString(1), rs.getObject(2, LocalDate.class).toEpochDay()));
+        });
+        return keys;
+    }
+
+    /**
+     * Loads the keys of the rates stored on or after the given day, packed by {@link #key(String, long)}.
+     */
+    public Set<Long> findKeysSince(LocalDate date) {
+        Set<Long> keys = new HashSet<>();
+        jdbcTemplate.query(SELECT_KEYS_SINCE_SQL, rs -> {
+            keys.add(key(rs.getString(1), rs.getObject(2, LocalDate.class).toEpochDay()));
+        }, date);
+        return keys;
+    }
+
+    /**
+     * Receives stored rates one row at a time.
+     */
+    @FunctionalInterface
+    public interface RateConsumer {
+        void accept(String currencyCode, long epochDay, double rate);
+    }
+
+    /**
+     * Streams every stored rate to the consumer without materializing entities.
+     */
+    public void forEachRate(RateConsumer consumer) {
+        jdbcTemplate.query(SELECT_RATES_SQL, rs -> {
+            consumer.accept(rs.getString(1), rs.getObject(2, LocalDate.class).toEpochDay(), rs.getDouble(3));
+        });
+    }
+
+    /**
+     * Returns the most recent stored date per currency.
+     */
+    public Map<String, LocalDate> findLatestDates() {
+        Map<String, LocalDate> latestDates = new HashMap<>();
+        jdbcTemplate.query(SELECT_LATEST_DATES_SQL, rs -> {
+            latestDates.put(rs.getString(1), rs.getObject(2, LocalDate.class));
+        });
+        return latestDates;
+    }
+
+    /**
+     * Returns the last day per currency stored by a completed ingest. Unlike {@link #findLatestDates()} this ignores
+     * single days fetched on demand, so days between the two are still refreshed.
+     */
+    public Map<String, LocalDate> findSyncedThrough() {
+        Map<String, LocalDate> syncedThrough = new HashMap<>();
+        jdbcTemplate.query(SELECT_SYNCED_THROUGH_SQL, rs -> {
+            syncedThrough.put(rs.getString(1), rs.getObject(2, LocalDate.class));
+        });
+        return syncedThrough;
+    }
+
+    /**
+     * Records that the ingest path has stored each currency's series up to the given epoch day. A mark never moves
+     * backwards, so a delta that ends early cannot undo a later one.
+     */
+    public void markSynced(Map<String, Long> syncedThrough) {
+        List<Object[]> rows = new ArrayList<>(syncedThrough.size());
+        syncedThrough.forEach((currencyCode, epochDay) -> rows.add(new Object[]{currencyCode, LocalDate.ofEpochDay(epochDay)}));
+        jdbcTemplate.batchUpdate(MARK_SYNCED_SQL, rows);
+    }
+
+    /**
+     * Inserts the buffered EUR rates as a single JDBC batch. Callers must filter out stored keys first.
+     */
+    public void batchInsert(ExchangeRateBatch batch) {
+        batchUpdate(INSERT_SQL, batch);
+    }
+
+    /**
+     * Inserts or overwrites the buffered EUR rates as a single JDBC batch, so concurrent writers of the
+     * same (currency, date) keys cannot fail on the primary key.
+     */
+    public void batchMerge(ExchangeRateBatch batch) {
+        batchUpdate(MERGE_SQL, batch);
+    }
+
+    private void batchUpdate(String sql, ExchangeRateBatch batch) {
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, batch.currencyCode(i));
+                ps.setString(2, "EUR");
+                ps.setObject(3, LocalDate.ofEpochDay(batch.epochDay(i)));
+                ps.setDouble(4, batch.rate(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+
+    /**
+     * Packs a three letter currency code and an epoch day into one long, avoiding a string key per row.
+     */
+    public static long key(String currencyCode, long epochDay) {
+        long code = 0;
+        for (int i = 0; i < currencyCode.length(); i++) {
+            code = (code << 8) | (currencyCode.charAt(i) & 0xFF);
+        }
+        return (code << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+}
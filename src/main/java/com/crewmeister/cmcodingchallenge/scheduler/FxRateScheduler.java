@@ -1,5 +1,6 @@
 package com.crewmeister.cmcodingchallenge.scheduler;
 
+import com.crewmeister.cmcodingchallenge.service.CurrencyService;
 import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,18 +12,23 @@ import org.springframework.stereotype.Component;
 public class FxRateScheduler {
 
     private final ExchangeRateService exchangeRateService ;
+    private final CurrencyService currencyService;
     private static final Logger logger = LoggerFactory.getLogger(FxRateScheduler.class);
 
-    public FxRateScheduler(ExchangeRateService exchangeRateService) {
+    public FxRateScheduler(ExchangeRateService exchangeRateService, CurrencyService currencyService) {
         this.exchangeRateService = exchangeRateService;
+        this.currencyService = currencyService;
     }
 
     /**
      * Every night 1:am refresh of exchange rate.
+     * Only observations newer than the stored ones are fetched; full reloads go through the admin API.
+     * The currency catalog is refreshed in the same run.
      */
     @Scheduled(cron = "0 0 1 * * *")
     public void refreshCurrencies() {
         logger.info("Refreshing currencies from Bundesbank...");
+        currencyService.refreshCurrencies();
         exchangeRateService.initFX();
     }
 }
@@ -2,15 +2,30 @@ package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.client.BundesbankClientImpl;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
 import com.crewmeister.cmcodingchallenge.model.CurrencyEntity;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.store.CurrencyCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.scheduler.Schedulers;
 
-import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 
@@ -19,52 +34,175 @@ public class CurrencyService {
 
     private final BundesbankClientImpl bundesbankClientImpl;
     private final CurrencyRepository currencyRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor loader;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<CompletableFuture<CurrencyCatalog>> pendingLoad = new AtomicReference<>();
+    private volatile CurrencyCatalog catalog;
+    private volatile long nextLoadAttempt;
+    private volatile long retryDelayNanos = MIN_RETRY_DELAY.toNanos();
+    private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+    private static final Duration FIRST_LOAD_TIMEOUT = Duration.ofSeconds(10);
     private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
 
-    public CurrencyService(BundesbankClientImpl bundesbankClientImpl, CurrencyRepository currencyRepository) {
+    @Autowired
+    public CurrencyService(BundesbankClientImpl bundesbankClientImpl, CurrencyRepository currencyRepository,
+                           ObjectMapper objectMapper) {
+        this(bundesbankClientImpl, currencyRepository, objectMapper,
+                task -> Schedulers.boundedElastic().schedule(task), System::nanoTime);
+    }
+
+    CurrencyService(BundesbankClientImpl bundesbankClientImpl, CurrencyRepository currencyRepository,
+                    ObjectMapper objectMapper, Executor loader, LongSupplier nanoClock) {
         this.bundesbankClientImpl = bundesbankClientImpl;
         this.currencyRepository = currencyRepository;
+        this.objectMapper = objectMapper;
+        this.loader = loader;
+        this.nanoClock = nanoClock;
+        this.catalog = CurrencyCatalog.of(Collections.emptyList(), objectMapper);
+        this.nextLoadAttempt = nanoClock.getAsLong();
     }
 
     /**
-     * Loads currencies at startup.
+     * Loads the currency catalog off the startup thread, from the persistent store if a previous run filled it,
+     * otherwise from the Bundesbank API. Started by the {@code StartupOrchestrator}; a failure completes the future
+     * exceptionally and the catalog is then loaded in the background once requested, see {@link #getCatalog()}.
      */
-    @PostConstruct
-    public void loadCurrenciesAtStartup() {
+    @Async
+    public CompletableFuture<CurrencyCatalog> loadCurrenciesAtStartup() {
         try {
-            logger.info("Loading currencies into DB...");
-            List<CurrencyDTO> currencies = bundesbankClientImpl.fetchCurrencies();
-            List<CurrencyEntity> currencyEntities = currencies.stream()
-                    .map(currency -> new CurrencyEntity(currency.getCode(), currency.getName()))
-                    .collect(Collectors.toList());
-            currencyRepository.saveAll(currencyEntities);
+            return CompletableFuture.completedFuture(loadCatalog());
         } catch (Exception e) {
             logger.error("Failed to load currencies at startup: {}", e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Nightly refresh: downloads the currency list, stores it and publishes a new catalog.
+     * On failure the current catalog keeps being served.
+     */
+    public void refreshCurrencies() {
+        try {
+            List<CurrencyDTO> currencies = bundesbankClientImpl.fetchCurrencies();
+            if (currencies.isEmpty()) {
+                logger.warn("Bundesbank returned no currencies, keeping {} cached", catalog.currencies().size());
+                return;
+            }
+            store(currencies);
+            publish(currencies);
+        } catch (Exception e) {
+            logger.error("Failed to refresh currencies: {}", e.getMessage());
         }
     }
 
     /**
-     * Retrieves all available currencies from the local database.
-     *  * If the database is empty, it fetches currencies from the Bundesbank API,
-     *  * saves them locally, and then returns them.
-     *
+     * Retrieves all available currencies from the in-memory catalog.
      */
     public List<CurrencyDTO> getAllCurrencies() {
-        if (currencyRepository.count() > 0) {
-            return currencyRepository.findAll().stream()
-                    .map(entity -> new CurrencyDTO(entity.getCode(), entity.getName()))
-                    .collect(Collectors.toList());
+        return getCatalog().currencies();
+    }
+
+    /**
+     * Returns the published catalog. While it is empty, e.g. the startup download failed, a load from the database
+     * or the Bundesbank API is started in the background, and the request waits for it up to
+     * {@link #FIRST_LOAD_TIMEOUT}. Concurrent requests share that one load. If it fails or takes longer, the
+     * request is answered with 503. Failed loads, an empty upstream answer included, are retried no sooner than an
+     * exponentially growing delay, so an outage costs one upstream call per delay instead of one per request.
+     */
+    public CurrencyCatalog getCatalog() {
+        CurrencyCatalog current = catalog;
+        if (!current.isEmpty()) {
+            return current;
         }
-        List<CurrencyDTO> fetchedCurrencies = bundesbankClientImpl.fetchCurrencies();
-        if (!fetchedCurrencies.isEmpty()) {
-            List<CurrencyEntity> currencyEntities = fetchedCurrencies.stream()
-                    .filter(currencyDTO -> !currencyRepository.existsByCode(currencyDTO.getCode())) // Avoid duplicate insertion
-                    .map(currencyDTO -> new CurrencyEntity(currencyDTO.getCode(), currencyDTO.getName()))
-                    .collect(Collectors.toList());
-            currencyRepository.saveAll(currencyEntities);
+        CompletableFuture<CurrencyCatalog> load = requestLoad();
+        if (load != null) {
+            try {
+                return load.get(FIRST_LOAD_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Answered below; a slow load keeps running and serves later requests.
+            }
         }
-        return fetchedCurrencies;
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Currencies are still loading. Try again later.");
+    }
+
+    /**
+     * The running load, a newly started one, or {@code null} while the retry delay of a failed load has not passed.
+     */
+    private CompletableFuture<CurrencyCatalog> requestLoad() {
+        CompletableFuture<CurrencyCatalog> running = pendingLoad.get();
+        if (running != null || nanoClock.getAsLong() - nextLoadAttempt < 0) {
+            return running;
+        }
+        CompletableFuture<CurrencyCatalog> load = new CompletableFuture<>();
+        if (!pendingLoad.compareAndSet(null, load)) {
+            return pendingLoad.get();
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    CurrencyCatalog loaded = loadCatalog();
+                    retryDelayNanos = MIN_RETRY_DELAY.toNanos();
+                    load.complete(loaded);
+                } catch (RuntimeException e) {
+                    long delay = retryDelayNanos;
+                    nextLoadAttempt = nanoClock.getAsLong() + delay;
+                    retryDelayNanos = Math.min(delay * 2, MAX_RETRY_DELAY.toNanos());
+                    logger.error("Failed to load currencies, next attempt in {} s: {}",
+                            TimeUnit.NANOSECONDS.toSeconds(delay), e.getMessage());
+                    load.completeExceptionally(e);
+                } finally {
+                    pendingLoad.set(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingLoad.set(null);
+            throw e;
+        }
+        return load;
+    }
+
+    /**
+     * Runs on the startup or the background loader thread only; the lock keeps the two from downloading twice.
+     * An empty currency list from the Bundesbank is a failed load: publishing it would leave the catalog empty.
+     */
+    private synchronized CurrencyCatalog loadCatalog() {
+        if (!catalog.isEmpty()) {
+            return catalog;
+        }
+        List<CurrencyDTO> currencies = currencyRepository.findAll().stream()
+                .map(entity -> new CurrencyDTO(entity.getCode(), entity.getName()))
+                .collect(Collectors.toList());
+        if (currencies.isEmpty()) {
+            logger.info("Loading currencies into DB...");
+            currencies = bundesbankClientImpl.fetchCurrencies();
+            if (currencies.isEmpty()) {
+                throw new BundesbankException("Bundesbank returned no currencies", HttpStatus.BAD_GATEWAY);
+            }
+            store(currencies);
+        } else {
+            logger.info("Currencies already stored, skipping download");
+        }
+        return publish(currencies);
     }
-}
 
+    private void store(List<CurrencyDTO> currencies) {
+        if (currencies.isEmpty()) {
+            return;
+        }
+        // The code is the primary key, so saveAll updates known currencies instead of duplicating them.
+        currencyRepository.saveAll(currencies.stream()
+                .map(currency -> new CurrencyEntity(currency.getCode(), currency.getName()))
+                .collect(Collectors.toList()));
+    }
 
+    private CurrencyCatalog publish(List<CurrencyDTO> currencies) {
+        CurrencyCatalog published = CurrencyCatalog.of(currencies, objectMapper);
+        catalog = published;
+        logger.info("Published currency catalog with {} currencies", currencies.size());
+        return published;
+    }
+}
@@ -1,58 +1,210 @@
 package com.crewmeister.cmcodingchallenge.service;
 
 import com.crewmeister.cmcodingchallenge.client.BundesbankClientImpl;
+import com.crewmeister.cmcodingchallenge.client.BundesbankCsvDecoder;
+import com.crewmeister.cmcodingchallenge.client.DatasetSpool;
+import com.crewmeister.cmcodingchallenge.dto.CrossCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.dto.CrossRateTable;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyConversionRequest;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePage;
 import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
 import com.crewmeister.cmcodingchallenge.dto.ExchangedCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
 import com.crewmeister.cmcodingchallenge.model.ExchangeRateEntity;
-import com.crewmeister.cmcodingchallenge.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatchRepository;
+import com.crewmeister.cmcodingchallenge.store.NegativeResultCache;
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import com.crewmeister.cmcodingchallenge.store.RateSeries;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class ExchangeRateService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
+    private static final int INGEST_BATCH_SIZE = 1000;
+    public static final int MAX_CONVERSION_BATCH_SIZE = 100_000;
+    static final int MAX_PAGE_SIZE = 10_000;
+    private static final int EMPTY_DATE_CACHE_SIZE = 4096;
+    private static final Duration EMPTY_DATE_CACHE_TTL = Duration.ofMinutes(30);
+    private static final char CURSOR_SEPARATOR = '|';
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+    // Series without observations this long before the newest one are treated as discontinued (e.g. legacy currencies).
+    private static final int ACTIVE_SERIES_WINDOW_DAYS = 31;
     private final BundesbankClientImpl bundesbankClientImpl;
-    final ExchangeRateRepository exchangeRateRepository;
-    private final AtomicBoolean isUpdating = new AtomicBoolean(false);
+    private final ExchangeRateBatchRepository exchangeRateBatchRepository;
+    private final RateMatrixStore rateMatrixStore;
+    private final DatasetSpool datasetSpool;
+    private final IngestWorkers ingestWorkers;
+    private final FixedPointConverter converter;
+    private final ForexMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    // Future of the running refresh, reload or replay; null while none runs.
+    private final AtomicReference<CompletableFuture<Void>> runningUpdate = new AtomicReference<>();
+    private final ConcurrentMap<LocalDate, Mono<List<ExchangeRateResponse>>> inFlightFetches = new ConcurrentHashMap<>();
+    private final NegativeResultCache<LocalDate> emptyDates =
+            new NegativeResultCache<>(EMPTY_DATE_CACHE_SIZE, EMPTY_DATE_CACHE_TTL);
 
-    public ExchangeRateService(BundesbankClientImpl bundesbankClientImpl, ExchangeRateRepository exchangeRateRepository) {
+    public ExchangeRateService(BundesbankClientImpl bundesbankClientImpl,
+                               ExchangeRateBatchRepository exchangeRateBatchRepository, RateMatrixStore rateMatrixStore,
+                               DatasetSpool datasetSpool, IngestWorkers ingestWorkers, FixedPointConverter converter,
+                               ForexMetrics metrics, PlatformTransactionManager transactionManager) {
         this.bundesbankClientImpl = bundesbankClientImpl;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateBatchRepository = exchangeRateBatchRepository;
+        this.rateMatrixStore = rateMatrixStore;
+        this.datasetSpool = datasetSpool;
+        this.ingestWorkers = ingestWorkers;
+        this.converter = converter;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
 
-    @EventListener(ApplicationReadyEvent.class)
+    /**
+     * Incremental refresh at startup, started by the {@code StartupOrchestrator}, and from the nightly scheduler.
+     * On the first run the rates persisted by a previous process are published before the delta is downloaded,
+     * so a restarted instance serves reads right away. The future completes once the refresh has finished,
+     * exceptionally if it failed. If another update, e.g. a reload started by an administrator, is running, no
+     * refresh is started and the future of that update is returned, so readiness still waits for the actual sync.
+     */
     @Async
-    public void initFX() {
-        if (isUpdating.compareAndSet(false, true)) {
-            try {
-                fetchAndStoreAllExchangeRates();
-            } finally {
-                isUpdating.set(false);
-            }
+    public CompletableFuture<Void> initFX() {
+        CompletableFuture<Void> update = new CompletableFuture<>();
+        CompletableFuture<Void> running = runningUpdate.compareAndExchange(null, update);
+        if (running != null) {
+            logger.info("Another exchange rate update is running, not starting a refresh");
+            return running;
+        }
+        try {
+            metrics.recordUpdateWindow(() -> {
+                if (rateMatrixStore.current().isEmpty()) {
+                    rateMatrixStore.rebuild();
+                }
+                refreshExchangeRates();
+            });
+            finishUpdate(update, null);
+        } catch (RuntimeException e) {
+            logger.error("Exchange rate refresh failed: {}", e.getMessage(), e);
+            finishUpdate(update, e);
+        }
+        return update;
+    }
+
+    /**
+     * Starts an explicit full reload of the whole history in the background, triggered by an administrator.
+     *
+     * @return {@code false} if another update is running, in which case nothing is started.
+     */
+    public boolean startReload() {
+        return startExclusively("Full exchange rate reload", this::fetchAndStoreAllExchangeRates);
+    }
+
+    /**
+     * Starts storing the dataset left in the spool by a failed full load in the background, without downloading
+     * it again.
+     *
+     * @return {@code false} if another update is running, in which case nothing is started.
+     */
+    public boolean startReplay() {
+        return startExclusively("Replay of the spooled exchange rates",
+                () -> datasetSpool.pendingDataset().ifPresent(file -> metrics.recordIngest("replay", () -> {
+                    try {
+                        ingestSpooled(file);
+                    } finally {
+                        publishSnapshot();
+                    }
+                })));
+    }
+
+    public boolean hasSpooledExchangeRates() {
+        return datasetSpool.pendingDataset().isPresent();
+    }
+
+    public boolean isUpdating() {
+        return runningUpdate.get() != null;
+    }
+
+    /**
+     * Claims the update slot on the calling thread and runs the update on the bounded elastic scheduler, so the
+     * caller learns whether it was started.
+     */
+    private boolean startExclusively(String name, Runnable update) {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        if (!runningUpdate.compareAndSet(null, started)) {
+            return false;
+        }
+        try {
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    metrics.recordUpdateWindow(update);
+                    finishUpdate(started, null);
+                } catch (RuntimeException e) {
+                    logger.error("{} failed: {}", name, e.getMessage(), e);
+                    finishUpdate(started, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            finishUpdate(started, e);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the update slot before completing the update's future, so whoever waits on it can start the next one.
+     */
+    private void finishUpdate(CompletableFuture<Void> update, Throwable failure) {
+        runningUpdate.set(null);
+        if (failure == null) {
+            update.complete(null);
+        } else {
+            update.completeExceptionally(failure);
         }
     }
 
     public ExchangedCurrencyAmountResponse exchangeCurrencyWithEuro(String currency, String date, double amount) {
+        return exchangeCurrencyWithEuro(currency, date, amount, false);
+    }
+
+    /**
+     * @param previousBusinessDay whether to use the latest rate of the currency on or before {@code date}
+     *                            when there is none on the day itself (weekends, holidays).
+     */
+    public ExchangedCurrencyAmountResponse exchangeCurrencyWithEuro(String currency, String date, double amount,
+                                                                    boolean previousBusinessDay) {
         // Euro to euro conversion should be dummy and no real REST call
         if ("EUR".equalsIgnoreCase(currency)) {
             return new ExchangedCurrencyAmountResponse(
@@ -63,24 +215,208 @@ public class ExchangeRateService {
                     amount
             );
         }
-        ensureNotUpdating();
-        ExchangeRateEntity exchangeRateEntity = exchangeRateRepository
-                .findByCurrencyCodeAndDate(currency.toUpperCase(), date)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Exchange rate not available for " + currency + " on " + date));
+        RateMatrix matrix = rateMatrixStore.current();
+        LocalDate day = parseDate(date);
+        double rate = matrix.rate(currency.toUpperCase(), day);
+        if (Double.isNaN(rate) && previousBusinessDay) {
+            RateSeries series = matrix.series(currency.toUpperCase());
+            int index = series == null ? -1 : series.indexAtOrBefore(day.toEpochDay());
+            if (index >= 0) {
+                rate = series.rate(index);
+                date = LocalDate.ofEpochDay(series.epochDay(index)).toString();
+            }
+        }
+        if (Double.isNaN(rate)) {
+            ensureSnapshotLoaded(matrix);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Exchange rate not available for " + currency + " on " + date);
+        }
+        return convert(currency.toUpperCase(), date, amount, rate);
+    }
+
+    /**
+     * Converts many amounts against a single snapshot, returning the results in request order.
+     * Currency ids and dates are resolved once per distinct value, so a batch of payroll lines costs one lookup
+     * per (currency, day) pair instead of one HTTP request each. The whole batch fails if any rate is missing.
+     */
+    public List<ExchangedCurrencyAmountResponse> exchangeCurrenciesWithEuro(List<CurrencyConversionRequest> requests) {
+        if (requests.size() > MAX_CONVERSION_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + MAX_CONVERSION_BATCH_SIZE + " conversions are allowed per request.");
+        }
+        RateMatrix matrix = rateMatrixStore.current();
+        Map<String, Integer> currencyIds = new HashMap<>();
+        Map<String, Long> epochDays = new HashMap<>();
+        List<ExchangedCurrencyAmountResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CurrencyConversionRequest request = requests.get(i);
+            if (request == null || request.getCurrency() == null || request.getDate() == null || request.getAmount() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Conversion " + i + " requires currency, date and amount.");
+            }
+            String currency = request.getCurrency().toUpperCase();
+            String date = request.getDate();
+            double amount = request.getAmount();
+            long epochDay = epochDays.computeIfAbsent(date, d -> parseDate(d).toEpochDay());
+            if ("EUR".equals(currency)) {
+                responses.add(new ExchangedCurrencyAmountResponse(currency, date, amount, 1.0, amount));
+                continue;
+            }
+            int currencyId = currencyIds.computeIfAbsent(currency, matrix::currencyId);
+            double rate = currencyId < 0 ? Double.NaN : matrix.rate(currencyId, epochDay);
+            if (Double.isNaN(rate)) {
+                ensureSnapshotLoaded(matrix);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Exchange rate not available for " + currency + " on " + date + " (conversion " + i + ")");
+            }
+            responses.add(convert(currency, date, amount, rate));
+        }
+        return responses;
+    }
 
-        double rate = exchangeRateEntity.getExchangeRate();
-        double convertedAmount = amount / rate;
+    private ExchangedCurrencyAmountResponse convert(String currency, String date, double amount, double rate) {
         return new ExchangedCurrencyAmountResponse(
-                currency.toUpperCase(),
+                currency,
                 date,
                 amount,
                 rate,
-                BigDecimal.valueOf(convertedAmount).setScale(2, RoundingMode.HALF_UP).doubleValue()
+                converter.convert(amount, rate, 1.0, "EUR")
         );
     }
 
+    /**
+     * Converts an amount between any two currencies, EUR included, by triangulating through their EUR rates
+     * of the same day in the current snapshot.
+     *
+     * @param previousBusinessDay whether to use the latest day on or before {@code date} on which both currencies
+     *                            are quoted when one of them has no rate on the day itself.
+     */
+    public CrossCurrencyAmountResponse exchangeCurrency(String from, String to, String date, double amount,
+                                                        boolean previousBusinessDay) {
+        String fromCode = from.toUpperCase();
+        String toCode = to.toUpperCase();
+        RateMatrix matrix = rateMatrixStore.current();
+        long epochDay = parseDate(date).toEpochDay();
+        double fromRate = euroRate(matrix, fromCode, epochDay);
+        double toRate = euroRate(matrix, toCode, epochDay);
+        if ((Double.isNaN(fromRate) || Double.isNaN(toRate)) && previousBusinessDay) {
+            long commonDay = commonDayAtOrBefore(matrix, fromCode, toCode, epochDay);
+            if (commonDay != Long.MIN_VALUE) {
+                fromRate = euroRate(matrix, fromCode, commonDay);
+                toRate = euroRate(matrix, toCode, commonDay);
+                date = LocalDate.ofEpochDay(commonDay).toString();
+            }
+        }
+        if (Double.isNaN(fromRate) || Double.isNaN(toRate)) {
+            ensureSnapshotLoaded(matrix);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Exchange rate not available for " + (Double.isNaN(fromRate) ? from : to) + " on " + date);
+        }
+        return new CrossCurrencyAmountResponse(
+                fromCode,
+                toCode,
+                date,
+                amount,
+                toRate / fromRate,
+                converter.convert(amount, fromRate, toRate, toCode)
+        );
+    }
+
+    /**
+     * Cross rates between EUR and every currency quoted on the day. The day's rates are read from the snapshot
+     * in one pass over the currencies, and each cell is a single division of two of them.
+     *
+     * @param previousBusinessDay whether to answer with the latest stored business day on or before {@code date}.
+     */
+    public CrossRateTable getCrossRateTable(String date, boolean previousBusinessDay) {
+        RateMatrix matrix = rateMatrixStore.current();
+        long epochDay = parseDate(date).toEpochDay();
+        if (previousBusinessDay && !matrix.isBusinessDay(epochDay)) {
+            long previous = matrix.previousBusinessDay(epochDay);
+            epochDay = previous == Long.MIN_VALUE ? epochDay : previous;
+        }
+        if (!matrix.isBusinessDay(epochDay)) {
+            ensureSnapshotLoaded(matrix);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates available for " + date);
+        }
+        List<String> currencies = new ArrayList<>(matrix.currencyCount() + 1);
+        double[] euroRates = new double[matrix.currencyCount() + 1];
+        currencies.add("EUR");
+        euroRates[0] = 1.0;
+        for (int currencyId = 0; currencyId < matrix.currencyCount(); currencyId++) {
+            double rate = matrix.rate(currencyId, epochDay);
+            if (!Double.isNaN(rate)) {
+                euroRates[currencies.size()] = rate;
+                currencies.add(matrix.currencyCode(currencyId));
+            }
+        }
+        int size = currencies.size();
+        double[][] rates = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                rates[i][j] = euroRates[j] / euroRates[i];
+            }
+        }
+        return new CrossRateTable(LocalDate.ofEpochDay(epochDay).toString(), currencies, rates);
+    }
+
+    /**
+     * Units of the currency per euro on the day, {@code 1} for EUR itself and {@code NaN} when there is no rate.
+     */
+    private static double euroRate(RateMatrix matrix, String currencyCode, long epochDay) {
+        return "EUR".equals(currencyCode) ? 1.0 : matrix.rate(matrix.currencyId(currencyCode), epochDay);
+    }
+
+    /**
+     * The latest day on or before {@code epochDay} with a rate for both currencies, or {@link Long#MIN_VALUE}.
+     * Each step moves to the older of the two latest observations, so it ends after a few series lookups.
+     */
+    private static long commonDayAtOrBefore(RateMatrix matrix, String fromCode, String toCode, long epochDay) {
+        RateSeries fromSeries = "EUR".equals(fromCode) ? null : matrix.series(fromCode);
+        RateSeries toSeries = "EUR".equals(toCode) ? null : matrix.series(toCode);
+        if ((fromSeries == null && !"EUR".equals(fromCode)) || (toSeries == null && !"EUR".equals(toCode))) {
+            return Long.MIN_VALUE;
+        }
+        long day = epochDay;
+        while (true) {
+            long fromDay = dayAtOrBefore(fromSeries, day);
+            long toDay = dayAtOrBefore(toSeries, day);
+            if (fromDay == Long.MIN_VALUE || toDay == Long.MIN_VALUE || fromDay == toDay) {
+                return Math.min(fromDay, toDay);
+            }
+            day = Math.min(fromDay, toDay);
+        }
+    }
+
+    /**
+     * Latest observation day of the series on or before the given day; any day for EUR, passed as {@code null}.
+     */
+    private static long dayAtOrBefore(RateSeries series, long epochDay) {
+        if (series == null) {
+            return epochDay;
+        }
+        int index = series.indexAtOrBefore(epochDay);
+        return index < 0 ? Long.MIN_VALUE : series.epochDay(index);
+    }
+
+    /**
+     * Decides whether a decoded (currency, day) row still has to be stored.
+     */
+    @FunctionalInterface
+    interface RateFilter {
+        boolean isNew(String currencyCode, long epochDay);
+    }
+
+    /**
+     * Feeds a CSV dataset, streamed or spooled, into a decoder.
+     */
+    @FunctionalInterface
+    private interface CsvSource {
+        void decodeInto(BundesbankCsvDecoder decoder) throws IOException;
+    }
+
+    /**
+     * Parses a single CSV line into an entity. Bulk ingestion uses the allocation-free {@link BundesbankCsvDecoder}.
+     */
     protected ExchangeRateEntity parseCsvLine(String line) {
         try {
             String[] fields = line.split(";");
@@ -96,7 +432,7 @@ public class ExchangeRateService {
             }
 
             double exchangeRate = Double.parseDouble(rateStr);
-            return new ExchangeRateEntity(currency, baseCurrency, date.toString(), exchangeRate);
+            return new ExchangeRateEntity(currency, baseCurrency, date, exchangeRate);
 
         } catch (DateTimeParseException | NumberFormatException e) {
             logger.error("Invalid CSV data: {}", line, e);
@@ -106,58 +442,399 @@ public class ExchangeRateService {
         return null;
     }
 
+    /**
+     * Downloads the full dataset, stores unseen rates and republishes the in-memory rate matrix.
+     * The matrix is rebuilt even if the download fails so that already stored rates stay servable.
+     * With parallel ingest enabled every known currency is fetched separately, see {@link IngestWorkers};
+     * with the spool enabled the download completes to disk first, see {@link DatasetSpool}.
+     */
     public void fetchAndStoreAllExchangeRates() {
-        List<ExchangeRateEntity> newRates = bundesbankClientImpl.fetchAllExchangeRatesCsv()
-                .skip(1)
-                .map(this::parseCsvLine)
-                .filter(Objects::nonNull)
-                .filter(rate -> !exchangeRateRepository.existsByCurrencyCodeAndDate(rate.getCurrencyCode(), rate.getDate())) // Avoid duplicates
-                .collect(Collectors.toList());
+        if (ingestWorkers.isEnabled()) {
+            Set<String> currencies = exchangeRateBatchRepository.findLatestDates().keySet();
+            if (!currencies.isEmpty()) {
+                metrics.recordIngest("full-parallel", () -> {
+                    try {
+                        fetchAndStorePerCurrency(currencies);
+                    } finally {
+                        publishSnapshot();
+                    }
+                });
+                return;
+            }
+            logger.info("No stored currencies yet, loading the full dataset as one stream");
+        }
+        if (datasetSpool.isEnabled()) {
+            metrics.recordIngest("full-spool", () -> {
+                try {
+                    ingestSpooled(datasetSpool.download());
+                } finally {
+                    publishSnapshot();
+                }
+            });
+            return;
+        }
+        metrics.recordIngest("full-stream", () -> {
+            try (InputStream csv = bundesbankClientImpl.fetchAllExchangeRatesCsv()) {
+                Set<Long> storedKeys = exchangeRateBatchRepository.findAllKeys();
+                ingestCsv(csv, (currencyCode, epochDay) -> storedKeys.add(ExchangeRateBatchRepository.key(currencyCode, epochDay)));
+            } catch (IOException e) {
+                logger.warn("Failed to close exchange rate stream: {}", e.getMessage());
+            } finally {
+                publishSnapshot();
+            }
+        });
+    }
+
+    /**
+     * Fetches only the observations newer than the high-water mark of each currency, the last day a completed ingest
+     * stored; days fetched on demand do not move it, so the days before them are still fetched.
+     * The request starts the day after the oldest high-water mark among active series;
+     * rows at or below a currency's own mark, or already stored, are skipped. Falls back to a full load when no
+     * ingest has completed yet.
+     */
+    public void refreshExchangeRates() {
+        Map<String, LocalDate> latestDates = exchangeRateBatchRepository.findSyncedThrough();
+        if (latestDates.isEmpty()) {
+            fetchAndStoreAllExchangeRates();
+            return;
+        }
+        LocalDate newest = Collections.max(latestDates.values());
+        LocalDate startPeriod = latestDates.values().stream()
+                .filter(date -> !date.isBefore(newest.minusDays(ACTIVE_SERIES_WINDOW_DAYS)))
+                .min(LocalDate::compareTo)
+                .orElse(newest)
+                .plusDays(1);
+        if (startPeriod.isAfter(LocalDate.now())) {
+            logger.info("Exchange rates are up to date as of {}", newest);
+            return;
+        }
+
+        Map<String, Long> latestEpochDays = new HashMap<>();
+        latestDates.forEach((currencyCode, date) -> latestEpochDays.put(currencyCode, date.toEpochDay()));
+        // Days fetched on demand may already be stored inside the window.
+        Set<Long> storedKeys = exchangeRateBatchRepository.findKeysSince(startPeriod);
+
+        logger.info("Fetching exchange rates since {}", startPeriod);
+        metrics.recordIngest("incremental", () -> {
+            try (InputStream csv = bundesbankClientImpl.fetchExchangeRatesCsvSince(startPeriod)) {
+                ingestCsv(csv, (currencyCode, epochDay) -> {
+                    Long latest = latestEpochDays.get(currencyCode);
+                    return (latest == null || epochDay > latest)
+                            && storedKeys.add(ExchangeRateBatchRepository.key(currencyCode, epochDay));
+                });
+            } catch (IOException e) {
+                logger.warn("Failed to close exchange rate stream: {}", e.getMessage());
+            } finally {
+                publishSnapshot();
+            }
+        });
+    }
+
+    /**
+     * Fetches, decodes and stores the series of every currency concurrently. Each currency is stored and marked as
+     * synced on its own, so one failing series neither blocks nor rolls back the others; the rate matrix is still
+     * published once, after all of them.
+     */
+    private void fetchAndStorePerCurrency(Collection<String> currencies) {
+        long start = System.nanoTime();
+        Set<Long> storedKeys = ConcurrentHashMap.newKeySet();
+        storedKeys.addAll(exchangeRateBatchRepository.findAllKeys());
+        Map<String, Throwable> failures = ingestWorkers.forEach(currencies, currencyCode -> {
+            try (InputStream csv = bundesbankClientImpl.fetchExchangeRatesCsv(currencyCode)) {
+                ingestCsv(csv, (code, epochDay) -> storedKeys.add(ExchangeRateBatchRepository.key(code, epochDay)));
+            } catch (IOException e) {
+                logger.warn("Failed to close exchange rate stream of {}: {}", currencyCode, e.getMessage());
+            }
+        });
+        failures.forEach((currencyCode, e) -> logger.error("Failed to load exchange rates of {}: {}", currencyCode, e.getMessage()));
+        logger.info("Loaded {} of {} currencies in parallel in {} ms", currencies.size() - failures.size(),
+                currencies.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Stores the unseen rates of a spooled dataset, then discards it. The file is kept if storing fails.
+     */
+    private void ingestSpooled(Path file) {
+        Set<Long> storedKeys = exchangeRateBatchRepository.findAllKeys();
+        ingest(decoder -> datasetSpool.decode(file, decoder),
+                (currencyCode, epochDay) -> storedKeys.add(ExchangeRateBatchRepository.key(currencyCode, epochDay)));
+        datasetSpool.discard(file);
+    }
+
+    /**
+     * Rebuilds the rate matrix after an ingest and forgets cached negative results, which new data may answer.
+     */
+    private void publishSnapshot() {
+        rateMatrixStore.rebuild();
+        emptyDates.clear();
+    }
+
+    /**
+     * Decodes the CSV stream and writes new rows to the database in JDBC batches of {@link #INGEST_BATCH_SIZE}.
+     * Rows rejected by {@code filter} are skipped, which replaces one existence query per row.
+     * <p>
+     * Every batch commits in its own transaction, so a full reload holds the locks of at most one batch at a time
+     * and never stalls the on-demand writes of {@code storeFetchedRates}, which upsert single days concurrently.
+     * The two write paths are ordered by key only: a batch that collides with a day merged on demand after
+     * {@code filter} was loaded is retried as an upsert, and both write the same Bundesbank value. API reads, the
+     * dataset pages included, are unaffected by a partially stored dataset, since they are served from the snapshot
+     * published afterwards.
+     * The sync marks are written last, so a failed ingest is resumed by the next refresh.
+     *
+     * @return the number of stored rates.
+     */
+    long ingestCsv(InputStream csv, RateFilter filter) {
+        return ingest(decoder -> decoder.decode(csv), filter);
+    }
 
-        if (!newRates.isEmpty()) {
-            exchangeRateRepository.saveAll(newRates);
+    private long ingest(CsvSource source, RateFilter filter) {
+        ExchangeRateBatch batch = new ExchangeRateBatch(INGEST_BATCH_SIZE);
+        long[] inserted = {0};
+        Map<String, Long> syncedThrough = new HashMap<>();
+        BundesbankCsvDecoder decoder = new BundesbankCsvDecoder((currencyCode, epochDay, rate) -> {
+            syncedThrough.merge(currencyCode, epochDay, Math::max);
+            if (!filter.isNew(currencyCode, epochDay)) {
+                return;
+            }
+            batch.add(currencyCode, epochDay, rate);
+            if (batch.isFull()) {
+                inserted[0] += flush(batch);
+            }
+        });
+        try {
+            source.decodeInto(decoder);
+        } catch (IOException e) {
+            throw new BundesbankException("Error while reading exchange rates: " + e.getMessage(), HttpStatus.BAD_GATEWAY);
         }
-        logger.info("Fetched {} exchange rates", newRates.size());
+        inserted[0] += flush(batch);
+        transactionTemplate.executeWithoutResult(status -> exchangeRateBatchRepository.markSynced(syncedThrough));
+        metrics.recordIngestedRows(decoder.rates(), decoder.skippedLines(), inserted[0]);
+        logger.info("Fetched {} exchange rates ({} MB), skipped {} rows, stored {} new ones",
+                decoder.rates(), decoder.bytesRead() >> 20, decoder.skippedLines(), inserted[0]);
+        return inserted[0];
     }
 
-    public Page<ExchangeRateEntity> fetchAndStoreAllExchangeRatesCsv(int page, int size) {
-        ensureNotUpdating();
-        Pageable pageable = PageRequest.of(page, size);
-        return exchangeRateRepository.findAll(pageable);
+    private int flush(ExchangeRateBatch batch) {
+        int size = batch.size();
+        if (size > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> exchangeRateBatchRepository.batchInsert(batch));
+            } catch (DuplicateKeyException e) {
+                logger.info("Batch overlaps rates fetched on demand meanwhile, merging it instead");
+                transactionTemplate.executeWithoutResult(status -> exchangeRateBatchRepository.batchMerge(batch));
+            }
+            batch.clear();
+        }
+        return size;
     }
 
+    /**
+     * Returns up to {@code size} rates of the published snapshot ordered by (date, currency), continuing after the
+     * given cursor. Pages are read from one snapshot, like every other read, so a running ingest never shows a
+     * partially stored dataset. The cursor is a position, not an offset: it seeks straight to its day, and a walk
+     * that spans a publication continues in the new snapshot without skipping or repeating rows before it.
+     */
+    public ExchangeRatePage getExchangeRatePage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String[] position = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+        RateMatrix matrix = rateMatrixStore.current();
+        long startDay = matrix.firstEpochDay();
+        int startCurrency = 0;
+        if (position != null) {
+            startDay = LocalDate.parse(position[0]).toEpochDay();
+            // Dense ids are assigned in alphabetical order, so the rows after the cursor start at the next code.
+            while (startCurrency < matrix.currencyCount() && matrix.currencyCode(startCurrency).compareTo(position[1]) <= 0) {
+                startCurrency++;
+            }
+        }
 
+        List<ExchangeRateResponse> content = new ArrayList<>(Math.min(size, INGEST_BATCH_SIZE));
+        for (long day = matrix.nextBusinessDay(startDay); day != Long.MIN_VALUE; day = matrix.nextBusinessDay(day + 1)) {
+            String date = LocalDate.ofEpochDay(day).toString();
+            for (int currency = day == startDay ? startCurrency : 0; currency < matrix.currencyCount(); currency++) {
+                double rate = matrix.rate(currency, day);
+                if (Double.isNaN(rate)) {
+                    continue;
+                }
+                if (content.size() == size) {
+                    ExchangeRateResponse last = content.get(size - 1);
+                    return new ExchangeRatePage(content, encodeCursor(last.getDate(), last.getCurrencyCode()));
+                }
+                content.add(new ExchangeRateResponse(matrix.currencyCode(currency), rate, date));
+            }
+        }
+        return new ExchangeRatePage(content, null);
+    }
+
+    static String encodeCursor(String date, String currencyCode) {
+        return CURSOR_ENCODER.encodeToString((date + CURSOR_SEPARATOR + currencyCode).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(CURSOR_SEPARATOR);
+            if (separator > 0) {
+                String date = LocalDate.parse(position.substring(0, separator)).toString();
+                return new String[]{date, position.substring(separator + 1)};
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Reported below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor: " + cursor);
+    }
+
+
+    /**
+     * Returns the rates of the given date from the published snapshot, fetching them from the Bundesbank on a miss.
+     */
     public List<ExchangeRateResponse> getFxExchangeRatesOnDate(String date) {
-        ensureNotUpdating();
-        List<ExchangeRateEntity> storedRates = exchangeRateRepository.findByDate(date);
-        if (!storedRates.isEmpty()) {
-            logger.info("Returning {} stored exchange rates for date {}", storedRates.size(), date);
-            return storedRates.stream()
-                    .map(rate -> new ExchangeRateResponse(rate.getCurrencyCode(), rate.getExchangeRate(), rate.getDate()))
-                    .collect(Collectors.toList());
-        }
-        List<ExchangeRateResponse> fetchedRates = bundesbankClientImpl.fetchExchangeRates(date);
+        return getFxExchangeRatesOnDateAsync(date, false).block();
+    }
+
+    public Mono<List<ExchangeRateResponse>> getFxExchangeRatesOnDateAsync(String date) {
+        return getFxExchangeRatesOnDateAsync(date, false);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getFxExchangeRatesOnDate(String)}. Snapshot hits complete immediately;
+     * on a miss no thread is held during the Bundesbank round trip, and only the short JDBC write of the
+     * fetched rows runs on the bounded elastic scheduler.
+     * <p>
+     * Known-empty dates are rejected without I/O: days inside the ingested history without observations are
+     * weekends or holidays, and dates the Bundesbank recently answered empty are kept in a negative cache. Days
+     * fetched on demand do not extend that history, so the unfetched days before them still go upstream.
+     *
+     * @param previousBusinessDay whether to answer with the latest stored business day before {@code date} when
+     *                            {@code date} itself is known to have no rates. A day that may still have rates is
+     *                            fetched first, as without the flag.
+     */
+    public Mono<List<ExchangeRateResponse>> getFxExchangeRatesOnDateAsync(String date, boolean previousBusinessDay) {
+        return Mono.defer(() -> {
+            LocalDate day = parseDate(date);
+            RateMatrix matrix = rateMatrixStore.current();
+            long epochDay = day.toEpochDay();
+            List<ExchangeRateResponse> storedRates = ratesOn(matrix, epochDay);
+            if (!storedRates.isEmpty()) {
+                metrics.snapshotLookup();
+                logger.info("Returning {} stored exchange rates for date {}", storedRates.size(), date);
+                return Mono.just(storedRates);
+            }
+            if (matrix.isIngested(epochDay) || emptyDates.contains(day)) {
+                if (previousBusinessDay) {
+                    return ratesBefore(matrix, epochDay, date);
+                }
+                metrics.knownEmptyLookup();
+                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates available for " + date));
+            }
+            metrics.upstreamLookup();
+            Mono<List<ExchangeRateResponse>> fetched = fetchOnce(day);
+            // An empty upstream answer puts the day into the negative cache; other failures are passed on.
+            return previousBusinessDay
+                    ? fetched.onErrorResume(e -> emptyDates.contains(day), e -> ratesBefore(rateMatrixStore.current(), epochDay, date))
+                    : fetched;
+        });
+    }
+
+    /**
+     * Rates of the latest business day before the given one, which has none, or 404 if the snapshot holds no
+     * earlier day.
+     */
+    private Mono<List<ExchangeRateResponse>> ratesBefore(RateMatrix matrix, long epochDay, String date) {
+        long previous = matrix.previousBusinessDay(epochDay);
+        if (previous == Long.MIN_VALUE) {
+            metrics.knownEmptyLookup();
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates available for " + date));
+        }
+        List<ExchangeRateResponse> rates = ratesOn(matrix, previous);
+        metrics.snapshotLookup();
+        logger.info("Returning {} stored exchange rates of {} for date {}", rates.size(), rates.get(0).getDate(), date);
+        return Mono.just(rates);
+    }
+
+    /**
+     * Single-flight upstream fetch: concurrent misses for the same day share one Bundesbank request and one write.
+     * The entry is dropped once the fetch terminates, so later misses (e.g. after an error) try again.
+     */
+    private Mono<List<ExchangeRateResponse>> fetchOnce(LocalDate day) {
+        return inFlightFetches.computeIfAbsent(day, key -> bundesbankClientImpl.fetchExchangeRatesAsync(key.toString())
+                .publishOn(Schedulers.boundedElastic())
+                .map(fetchedRates -> storeFetchedRates(key, fetchedRates))
+                .doFinally(signal -> inFlightFetches.remove(key))
+                .cache());
+    }
+
+    private List<ExchangeRateResponse> storeFetchedRates(LocalDate date, List<ExchangeRateResponse> fetchedRates) {
         if (fetchedRates.isEmpty()) {
             logger.warn("No exchange rates available from external API for date {}", date);
+            emptyDates.put(date);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates available for " + date);
         }
 
-        List<ExchangeRateEntity> entities = fetchedRates.stream()
-                .map(rate -> new ExchangeRateEntity(rate.getCurrencyCode(), "EUR", rate.getDate(), rate.getExchangeRate()))
-                .collect(Collectors.toList());
-        exchangeRateRepository.saveAll(entities);
+        ExchangeRateBatch rows = new ExchangeRateBatch(fetchedRates.size());
+        for (ExchangeRateResponse rate : fetchedRates) {
+            rows.add(rate.getCurrencyCode(), LocalDate.parse(rate.getDate()).toEpochDay(), rate.getExchangeRate());
+        }
+        // Concurrent misses for the same date may store the same rows; merging keeps that idempotent.
+        exchangeRateBatchRepository.batchMerge(rows);
+        rateMatrixStore.merge(rows);
 
-        logger.info("Stored {} fetched exchange rates for date {}", entities.size(), date);
+        logger.info("Stored {} fetched exchange rates for date {}", rows.size(), date);
 
         return fetchedRates;
     }
 
     /**
-     *  Checks if system is updating and returns 503 if so.
+     * Returns the stored observations of the currency between both dates inclusive, each bound being optional.
+     * The result is a view on the published snapshot, so nothing is copied per request.
+     */
+    public RateSeries getExchangeRateSeries(String currency, String from, String to) {
+        long fromEpochDay = from == null ? Long.MIN_VALUE : parseDate(from).toEpochDay();
+        long toEpochDay = to == null ? Long.MAX_VALUE : parseDate(to).toEpochDay();
+        if (fromEpochDay > toEpochDay) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'.");
+        }
+        RateMatrix matrix = rateMatrixStore.current();
+        RateSeries series = matrix.series(currency.toUpperCase());
+        if (series == null) {
+            ensureSnapshotLoaded(matrix);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exchange rates available for " + currency);
+        }
+        return series.between(fromEpochDay, toEpochDay);
+    }
+
+    private List<ExchangeRateResponse> ratesOn(RateMatrix matrix, long epochDay) {
+        if (!matrix.isBusinessDay(epochDay)) {
+            return new ArrayList<>();
+        }
+        String date = LocalDate.ofEpochDay(epochDay).toString();
+        List<ExchangeRateResponse> rates = new ArrayList<>();
+        for (int currencyId = 0; currencyId < matrix.currencyCount(); currencyId++) {
+            double rate = matrix.rate(currencyId, epochDay);
+            if (!Double.isNaN(rate)) {
+                rates.add(new ExchangeRateResponse(matrix.currencyCode(currencyId), rate, date));
+            }
+        }
+        return rates;
+    }
+
+    private LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format, expected yyyy-MM-dd: " + date);
+        }
+    }
+
+    /**
+     *  Returns 503 if no snapshot has been published yet, i.e. the very first load is still running.
+     *  Later updates never affect reads, which keep using the previous snapshot.
      */
-    public void ensureNotUpdating() {
-        if (isUpdating.get()) {
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "System is updating. Try again later.");
+    private void ensureSnapshotLoaded(RateMatrix matrix) {
+        if (matrix.isEmpty() && isUpdating()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Exchange rates are still loading. Try again later.");
         }
     }
 
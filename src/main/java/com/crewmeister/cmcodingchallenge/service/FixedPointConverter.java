@@ -0,0 +1,251 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Converts amounts with exact decimal arithmetic on scaled {@code long}s.
+ * <p>
+ * Amounts and rates arrive as doubles but are decimals with a few fraction digits (the Bundesbank publishes rates
+ * with at most {@value #MAX_SCALE}), so each is read back as an unscaled {@code long} and its scale. The converted
+ * amount is then one 128-bit product and one 128-by-64-bit division, rounded to the minor units of the target
+ * currency with the configured {@link RoundingMode}. Results are exactly those of the equivalent {@link BigDecimal}
+ * computation, which remains the fallback for values outside the fixed-point range; the fixed-point path creates
+ * no objects.
+ */
+@Component
+public class FixedPointConverter {
+
+    static final int MAX_SCALE = 6;
+    private static final int DEFAULT_MINOR_UNITS = 2;
+    private static final int MAX_MINOR_UNITS = 8;
+    // Below 2^50 the spacing of doubles is under a quarter of 10^-scale, so a decimal is recovered unambiguously.
+    private static final double MAX_EXACT_SCALED = 0x1p50;
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long MASK_32 = 0xFFFF_FFFFL;
+    private static final long OVERFLOW = -1;
+
+    private final RoundingMode roundingMode;
+    private final ConcurrentMap<String, Integer> minorUnits = new ConcurrentHashMap<>();
+
+    /**
+     * @param minorUnitOverrides {@code CODE:digits} entries for currencies whose minor units differ from ISO 4217.
+     */
+    public FixedPointConverter(@Value("${forex.conversion.rounding-mode:HALF_UP}") RoundingMode roundingMode,
+                               @Value("${forex.conversion.minor-units:}") String[] minorUnitOverrides) {
+        if (roundingMode == RoundingMode.UNNECESSARY) {
+            throw new IllegalArgumentException("Rounding mode UNNECESSARY cannot round converted amounts");
+        }
+        this.roundingMode = roundingMode;
+        for (String override : minorUnitOverrides) {
+            String[] parts = override.trim().split(":");
+            int digits = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : -1;
+            if (digits < 0 || digits > MAX_MINOR_UNITS) {
+                throw new IllegalArgumentException("Invalid minor unit override, expected CODE:0.." + MAX_MINOR_UNITS
+                        + ": " + override);
+            }
+            minorUnits.put(parts[0].trim().toUpperCase(), digits);
+        }
+    }
+
+    public RoundingMode roundingMode() {
+        return roundingMode;
+    }
+
+    /**
+     * Fraction digits of the currency: the configured override, else ISO 4217, else {@value #DEFAULT_MINOR_UNITS}.
+     */
+    public int minorUnits(String currencyCode) {
+        return minorUnits.computeIfAbsent(currencyCode, FixedPointConverter::isoMinorUnits);
+    }
+
+    /**
+     * Converts {@code amount} from a currency quoted at {@code fromRate} units per euro into one quoted at
+     * {@code toRate}, i.e. {@code amount * toRate / fromRate}, rounded to the minor units of {@code targetCurrency}.
+     * Pass {@code 1} as the rate of EUR.
+     */
+    public double convert(double amount, double fromRate, double toRate, String targetCurrency) {
+        int minor = minorUnits(targetCurrency);
+        int amountScale = decimalScale(amount);
+        int fromScale = decimalScale(fromRate);
+        int toScale = decimalScale(toRate);
+        if (amountScale >= 0 && fromScale >= 0 && toScale >= 0 && fromRate > 0 && toRate > 0) {
+            long unscaled = scaledQuotient(
+                    unscaled(Math.abs(amount), amountScale),
+                    unscaled(fromRate, fromScale),
+                    unscaled(toRate, toScale),
+                    minor + fromScale - amountScale - toScale,
+                    amount < 0 ? -1 : 1);
+            if (unscaled != OVERFLOW) {
+                long signed = amount < 0 ? -unscaled : unscaled;
+                return unscaled < MAX_EXACT_DOUBLE
+                        ? signed / POWERS_OF_TEN[minor]
+                        : BigDecimal.valueOf(signed, minor).doubleValue();
+            }
+        }
+        return convertExactly(amount, fromRate, toRate, minor);
+    }
+
+    /**
+     * The {@link BigDecimal} computation the fixed-point path reproduces.
+     */
+    double convertExactly(double amount, double fromRate, double toRate, int minor) {
+        return BigDecimal.valueOf(amount)
+                .multiply(BigDecimal.valueOf(toRate))
+                .divide(BigDecimal.valueOf(fromRate), minor, roundingMode)
+                .doubleValue();
+    }
+
+    /**
+     * {@code amount * to * 10^exponent / from} rounded to an integer, for non-negative {@code amount} and positive
+     * rates; {@code signum} is the sign of the original amount. Returns {@link #OVERFLOW} when the operands or the
+     * result do not fit.
+     */
+    private long scaledQuotient(long amount, long from, long to, int exponent, int signum) {
+        long multiplier = to;
+        long divisor = from;
+        if (exponent >= 0) {
+            multiplier = exponent < LONG_POWERS_OF_TEN.length ? multiply(to, LONG_POWERS_OF_TEN[exponent]) : OVERFLOW;
+        } else {
+            divisor = -exponent < LONG_POWERS_OF_TEN.length ? multiply(from, LONG_POWERS_OF_TEN[-exponent]) : OVERFLOW;
+        }
+        if (multiplier == OVERFLOW || divisor == OVERFLOW) {
+            return OVERFLOW;
+        }
+        long high = Math.multiplyHigh(amount, multiplier);
+        long low = amount * multiplier;
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            return OVERFLOW;
+        }
+        long quotient = divideUnsigned(high, low, divisor);
+        long remainder = low - quotient * divisor;
+        long rounded = round(quotient, remainder, divisor, signum, roundingMode);
+        return rounded < 0 || rounded == Long.MAX_VALUE ? OVERFLOW : rounded;
+    }
+
+    /**
+     * Rounds the magnitude {@code quotient + remainder / divisor} of a value with the given sign.
+     */
+    static long round(long quotient, long remainder, long divisor, int signum, RoundingMode mode) {
+        if (remainder == 0) {
+            return quotient;
+        }
+        boolean increment;
+        switch (mode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = signum > 0;
+                break;
+            case FLOOR:
+                increment = signum < 0;
+                break;
+            case HALF_UP:
+            case HALF_DOWN:
+            case HALF_EVEN:
+                int half = Long.compare(remainder, divisor - remainder);
+                increment = half > 0 || half == 0 && (mode == RoundingMode.HALF_UP
+                        || mode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return increment ? quotient + 1 : quotient;
+    }
+
+    /**
+     * Unsigned division of the 128-bit value {@code high:low} by {@code divisor}, which must exceed {@code high}
+     * so that the quotient fits 64 bits. Knuth's algorithm D on 32-bit digits, after Hacker's Delight {@code divlu}.
+     */
+    static long divideUnsigned(long high, long low, long divisor) {
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & MASK_32;
+        long numerator = shift == 0 ? high : high << shift | low >>> (64 - shift);
+        long lowShifted = low << shift;
+        long digit1 = lowShifted >>> 32;
+        long digit0 = lowShifted & MASK_32;
+
+        long q1 = Long.divideUnsigned(numerator, vHigh);
+        long remainder = numerator - q1 * vHigh;
+        while (Long.compareUnsigned(q1, MASK_32) > 0
+                || Long.compareUnsigned(q1 * vLow, remainder << 32 | digit1) > 0) {
+            q1--;
+            remainder += vHigh;
+            if (Long.compareUnsigned(remainder, MASK_32) > 0) {
+                break;
+            }
+        }
+        long partial = (numerator << 32 | digit1) - q1 * v;
+
+        long q0 = Long.divideUnsigned(partial, vHigh);
+        remainder = partial - q0 * vHigh;
+        while (Long.compareUnsigned(q0, MASK_32) > 0
+                || Long.compareUnsigned(q0 * vLow, remainder << 32 | digit0) > 0) {
+            q0--;
+            remainder += vHigh;
+            if (Long.compareUnsigned(remainder, MASK_32) > 0) {
+                break;
+            }
+        }
+        return q1 << 32 | q0;
+    }
+
+    /**
+     * Smallest number of fraction digits, up to {@value #MAX_SCALE}, of the decimal the double was parsed from,
+     * or {@code -1} if it has more digits or is too large to be recovered exactly.
+     */
+    static int decimalScale(double value) {
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            double scaled = value * POWERS_OF_TEN[scale];
+            if (!(Math.abs(scaled) < MAX_EXACT_SCALED)) {
+                return -1;
+            }
+            if (Math.rint(scaled) / POWERS_OF_TEN[scale] == value) {
+                return scale;
+            }
+        }
+        return -1;
+    }
+
+    private static long unscaled(double value, int scale) {
+        return (long) Math.rint(value * POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * Product of two non-negative longs, or {@link #OVERFLOW}.
+     */
+    private static long multiply(long x, long y) {
+        long product = x * y;
+        return Math.multiplyHigh(x, y) != 0 || product < 0 ? OVERFLOW : product;
+    }
+
+    private static int isoMinorUnits(String currencyCode) {
+        try {
+            int digits = Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT_MINOR_UNITS : digits;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_MINOR_UNITS;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Worker pool for ingest modes that fan out one upstream request per currency.
+ * Tasks run on virtual threads when the JDK provides them (21+) and on a fixed pool of platform threads otherwise;
+ * either way no more than {@code forex.ingest.parallel.max-concurrency} run at once, to stay polite to the Bundesbank.
+ */
+@Component
+public class IngestWorkers {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestWorkers.class);
+
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final ExecutorService executor;
+
+    public IngestWorkers(@Value("${forex.ingest.parallel.enabled:false}") boolean enabled,
+                         @Value("${forex.ingest.parallel.max-concurrency:6}") int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("forex.ingest.parallel.max-concurrency must be at least 1");
+        }
+        this.enabled = enabled;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = newExecutor(maxConcurrency);
+    }
+
+    /**
+     * Whether full loads fan out per currency instead of pulling the wildcard series as one stream.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the task for every key in parallel and waits for all of them, so the elapsed time is that of the slowest
+     * key rather than the sum. A failing key does not stop the others.
+     *
+     * @return the failure of every key whose task threw, in submission order.
+     */
+    public <K> Map<K, Throwable> forEach(Collection<K> keys, Consumer<K> task) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.accept(key);
+                } finally {
+                    permits.release();
+                }
+            }, executor));
+        }
+
+        Map<K, Throwable> failures = new LinkedHashMap<>();
+        int i = 0;
+        for (K key : keys) {
+            try {
+                futures.get(i++).join();
+            } catch (CompletionException e) {
+                failures.put(key, e.getCause());
+            }
+        }
+        return failures;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService newExecutor(int maxConcurrency) {
+        try {
+            ExecutorService virtualThreads =
+                    (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Parallel ingest runs on virtual threads, at most {} at a time", maxConcurrency);
+            return virtualThreads;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "ingest-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
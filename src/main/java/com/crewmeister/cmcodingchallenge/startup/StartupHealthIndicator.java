@@ -0,0 +1,36 @@
+package com.crewmeister.cmcodingchallenge.startup;
+
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code startup} health contributor, part of the readiness group: out of service until the instance is warm,
+ * see {@link StartupOrchestrator#isWarm()}. Liveness does not include it, so a slow first load never gets the
+ * instance restarted.
+ */
+@Component
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private final StartupOrchestrator startupOrchestrator;
+    private final RateMatrixStore rateMatrixStore;
+
+    public StartupHealthIndicator(StartupOrchestrator startupOrchestrator, RateMatrixStore rateMatrixStore) {
+        this.startupOrchestrator = startupOrchestrator;
+        this.rateMatrixStore = rateMatrixStore;
+    }
+
+    @Override
+    public Health health() {
+        RateMatrix matrix = rateMatrixStore.current();
+        Health.Builder health = startupOrchestrator.isWarm() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("snapshotVersion", matrix.version())
+                .withDetail("currencies", matrix.currencyCount())
+                .withDetail("currencyLoad", startupOrchestrator.currencyLoad())
+                .withDetail("rateSync", startupOrchestrator.rateSync())
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.crewmeister.cmcodingchallenge.startup;
+
+import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the currency and exchange rate loads in parallel on the async executor as soon as the context is up,
+ * so neither blocks context startup. The instance is warm once the currency load has finished and a rate snapshot
+ * is published; a restarted instance publishes the snapshot persisted by the previous run before it syncs with the
+ * Bundesbank, so it takes traffic while that sync continues. With {@code forex.startup.await-sync} it also waits
+ * for the sync. {@link StartupHealthIndicator} reports this state in the readiness probe.
+ */
+@Component
+public class StartupOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private final CurrencyService currencyService;
+    private final ExchangeRateService exchangeRateService;
+    private final RateMatrixStore rateMatrixStore;
+    private final boolean awaitSync;
+    private volatile CompletableFuture<?> currencyLoad = new CompletableFuture<>();
+    private volatile CompletableFuture<?> rateSync = new CompletableFuture<>();
+
+    public StartupOrchestrator(CurrencyService currencyService, ExchangeRateService exchangeRateService,
+                               RateMatrixStore rateMatrixStore,
+                               @Value("${forex.startup.await-sync:false}") boolean awaitSync) {
+        this.currencyService = currencyService;
+        this.exchangeRateService = exchangeRateService;
+        this.rateMatrixStore = rateMatrixStore;
+        this.awaitSync = awaitSync;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        long started = System.nanoTime();
+        currencyLoad = currencyService.loadCurrenciesAtStartup();
+        rateSync = exchangeRateService.initFX();
+        CompletableFuture.allOf(currencyLoad, rateSync).whenComplete((ignored, error) -> logger.info(
+                "Startup loads finished in {} ms, rate snapshot v{} published",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rateMatrixStore.current().version()));
+    }
+
+    /**
+     * Whether the instance can answer reads from memory and should receive traffic.
+     */
+    public boolean isWarm() {
+        return currencyLoad.isDone() && !rateMatrixStore.current().isEmpty() && (!awaitSync || rateSync.isDone());
+    }
+
+    public LoadState currencyLoad() {
+        return LoadState.of(currencyLoad);
+    }
+
+    public LoadState rateSync() {
+        return LoadState.of(rateSync);
+    }
+
+    public enum LoadState {
+        RUNNING, DONE, FAILED;
+
+        static LoadState of(CompletableFuture<?> load) {
+            return !load.isDone() ? RUNNING : load.isCompletedExceptionally() ? FAILED : DONE;
+        }
+    }
+}
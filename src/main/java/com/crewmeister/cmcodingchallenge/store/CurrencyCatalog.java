@@ -0,0 +1,57 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.dto.ApiResponse;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable list of available currencies together with its rendered {@code /currencies} response.
+ * The body and its strong ETag are computed once when the catalog is built, so serving it is a memory read.
+ */
+public final class CurrencyCatalog {
+
+    private final List<CurrencyDTO> currencies;
+    private final byte[] body;
+    private final String etag;
+
+    private CurrencyCatalog(List<CurrencyDTO> currencies, byte[] body) {
+        this.currencies = currencies;
+        this.body = body;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    public static CurrencyCatalog of(List<CurrencyDTO> currencies, ObjectMapper objectMapper) {
+        List<CurrencyDTO> copy = Collections.unmodifiableList(new ArrayList<>(currencies));
+        try {
+            return new CurrencyCatalog(copy, objectMapper.writeValueAsBytes(new ApiResponse<>(copy)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<CurrencyDTO> currencies() {
+        return currencies;
+    }
+
+    /**
+     * Serialized {@code ApiResponse} of the currencies. Shared, must not be modified.
+     */
+    public byte[] body() {
+        return body;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public boolean isEmpty() {
+        return currencies.isEmpty();
+    }
+}
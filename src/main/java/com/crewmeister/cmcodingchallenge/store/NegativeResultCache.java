@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, time-limited set of keys known to have no data, e.g. dates the Bundesbank answered without observations.
+ * The least recently used key is evicted once {@code maxSize} is reached; entries expire after the TTL.
+ */
+public final class NegativeResultCache<K> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Long> expiries;
+
+    public NegativeResultCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    NegativeResultCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.expiries = new LinkedHashMap<K, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > NegativeResultCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized boolean contains(K key) {
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (nanoClock.getAsLong() - expiry >= 0) {
+            expiries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized void put(K key) {
+        expiries.put(key, nanoClock.getAsLong() + ttlNanos);
+    }
+
+    public synchronized void clear() {
+        expiries.clear();
+    }
+
+    public synchronized int size() {
+        return expiries.size();
+    }
+}
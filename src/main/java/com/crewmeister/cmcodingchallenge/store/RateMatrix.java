@@ -0,0 +1,408 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, read-optimized view of the EUR-FX history.
+ * Rates are kept in one currency-major {@code double[]} addressed by
+ * {@code currencyId * dayCount + (epochDay - firstEpochDay)}. Missing observations are {@code NaN}.
+ * For range reads every currency additionally has a gap-free {@link RateSeries}, and a bit set of the days with any
+ * observation serves as business-day calendar.
+ */
+public final class RateMatrix {
+
+    private static final RateSeries[] NO_SERIES = new RateSeries[0];
+    private static final RateMatrix EMPTY =
+            of(0L, new String[0], Collections.emptyMap(), 0L, 0, new double[0], Long.MIN_VALUE);
+
+    private final long version;
+    private final String[] currencies;
+    private final Map<String, Integer> currencyIds;
+    private final long firstEpochDay;
+    private final int dayCount;
+    private final double[] rates;
+    private final long ingestedThrough;
+    private final RateSeries[] series;
+    private final BitSet observedDays;
+    private final long fingerprint;
+
+    private RateMatrix(long version, String[] currencies, Map<String, Integer> currencyIds, long firstEpochDay, int dayCount,
+                       double[] rates, long ingestedThrough, RateSeries[] series, BitSet observedDays, long fingerprint) {
+        this.version = version;
+        this.currencies = currencies;
+        this.currencyIds = currencyIds;
+        this.firstEpochDay = firstEpochDay;
+        this.dayCount = dayCount;
+        this.rates = rates;
+        this.ingestedThrough = ingestedThrough;
+        this.series = series;
+        this.observedDays = observedDays;
+        this.fingerprint = fingerprint;
+    }
+
+    private static RateMatrix of(long version, String[] currencies, Map<String, Integer> currencyIds, long firstEpochDay,
+                                 int dayCount, double[] rates, long ingestedThrough) {
+        RateSeries[] series = new RateSeries[currencies.length];
+        for (int currency = 0; currency < currencies.length; currency++) {
+            series[currency] = buildSeries(currencies[currency], rates, currency * dayCount, firstEpochDay, dayCount);
+        }
+        return new RateMatrix(version, currencies, currencyIds, firstEpochDay, dayCount, rates, ingestedThrough,
+                currencies.length == 0 ? NO_SERIES : series, buildObservedDays(series, firstEpochDay, dayCount),
+                computeFingerprint(currencies, firstEpochDay, dayCount, rates));
+    }
+
+    public static RateMatrix empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Version of the snapshot, increasing with every publication. The empty matrix has version 0.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the content, independent of the version counter. Equal on every instance and restart
+     * that holds the same rates, which makes it usable as an HTTP entity tag. {@link #mergedWith} folds the merged
+     * rows into the fingerprint of the matrix they were merged into, so it changes with every merge as well.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isEmpty() {
+        return currencies.length == 0;
+    }
+
+    public int currencyCount() {
+        return currencies.length;
+    }
+
+    public int dayCount() {
+        return dayCount;
+    }
+
+    public long firstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public long lastEpochDay() {
+        return firstEpochDay + dayCount - 1;
+    }
+
+    /**
+     * Dense id of the given ISO code, or {@code -1} when the currency is unknown.
+     */
+    public int currencyId(String currencyCode) {
+        Integer id = currencyIds.get(currencyCode);
+        return id == null ? -1 : id;
+    }
+
+    public String currencyCode(int currencyId) {
+        return currencies[currencyId];
+    }
+
+    /**
+     * Rate for the currency on the given epoch day, or {@code NaN} when there is no observation.
+     */
+    public double rate(int currencyId, long epochDay) {
+        long dayIndex = epochDay - firstEpochDay;
+        if (currencyId < 0 || currencyId >= currencies.length || dayIndex < 0 || dayIndex >= dayCount) {
+            return Double.NaN;
+        }
+        return rates[currencyId * dayCount + (int) dayIndex];
+    }
+
+    public double rate(String currencyCode, LocalDate date) {
+        return rate(currencyId(currencyCode), date.toEpochDay());
+    }
+
+    /**
+     * Whether the day lies between the first and the last stored day.
+     */
+    public boolean covers(long epochDay) {
+        return dayCount > 0 && epochDay >= firstEpochDay && epochDay <= lastEpochDay();
+    }
+
+    /**
+     * Last day stored by a completed ingest, or {@link Long#MIN_VALUE} if none has completed.
+     */
+    public long ingestedThrough() {
+        return ingestedThrough;
+    }
+
+    /**
+     * Whether the day lies between the first stored day and {@link #ingestedThrough()}. Days inside that range
+     * without any observation are weekends or TARGET holidays; later days may just not be fetched yet, even when
+     * a day after them was fetched on demand.
+     */
+    public boolean isIngested(long epochDay) {
+        return covers(epochDay) && epochDay <= ingestedThrough;
+    }
+
+    /**
+     * Whether any currency has an observation on the given day.
+     */
+    public boolean isBusinessDay(long epochDay) {
+        return covers(epochDay) && observedDays.get((int) (epochDay - firstEpochDay));
+    }
+
+    /**
+     * The latest day on or before the given one with any observation, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public long previousBusinessDay(long epochDay) {
+        if (dayCount == 0 || epochDay < firstEpochDay) {
+            return Long.MIN_VALUE;
+        }
+        int index = observedDays.previousSetBit((int) Math.min(epochDay - firstEpochDay, dayCount - 1));
+        return index < 0 ? Long.MIN_VALUE : firstEpochDay + index;
+    }
+
+    /**
+     * The earliest day on or after the given one with any observation, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public long nextBusinessDay(long epochDay) {
+        if (dayCount == 0 || epochDay > lastEpochDay()) {
+            return Long.MIN_VALUE;
+        }
+        int index = observedDays.nextSetBit((int) Math.max(epochDay - firstEpochDay, 0));
+        return index < 0 ? Long.MIN_VALUE : firstEpochDay + index;
+    }
+
+    /**
+     * All observations of the currency in day order, or {@code null} when the currency is unknown.
+     */
+    public RateSeries series(String currencyCode) {
+        int id = currencyId(currencyCode);
+        return id < 0 ? null : series[id];
+    }
+
+    /**
+     * Number of stored observations. Intended for logging, not for the hot path.
+     */
+    public int observationCount() {
+        int count = 0;
+        for (double rate : rates) {
+            if (!Double.isNaN(rate)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copy of this matrix with rows fetched on demand added, keeping version and ingested range, so responses cached
+     * for this snapshot stay valid. The fingerprint is extended by the rows, so validators handed out for a fallback
+     * answer no longer match once the requested day has rates. Rows of known currencies inside the day range are written into
+     * a copy of the rate array and only the series of their currencies are rebuilt; other rows need a new layout.
+     */
+    public RateMatrix mergedWith(ExchangeRateBatch rows) {
+        boolean inPlace = dayCount > 0;
+        for (int i = 0; i < rows.size() && inPlace; i++) {
+            inPlace = currencyId(rows.currencyCode(i)) >= 0 && covers(rows.epochDay(i));
+        }
+        if (!inPlace) {
+            Builder builder = builder().version(version).ingestedThrough(ingestedThrough).addAll(this);
+            for (int i = 0; i < rows.size(); i++) {
+                builder.add(rows.currencyCode(i), rows.epochDay(i), rows.rate(i));
+            }
+            RateMatrix relaidOut = builder.build();
+            return new RateMatrix(version, relaidOut.currencies, relaidOut.currencyIds, relaidOut.firstEpochDay,
+                    relaidOut.dayCount, relaidOut.rates, ingestedThrough, relaidOut.series, relaidOut.observedDays,
+                    foldIn(fingerprint, rows));
+        }
+        double[] mergedRates = rates.clone();
+        RateSeries[] mergedSeries = series.clone();
+        BitSet mergedDays = (BitSet) observedDays.clone();
+        BitSet touched = new BitSet(currencies.length);
+        for (int i = 0; i < rows.size(); i++) {
+            int currency = currencyId(rows.currencyCode(i));
+            int day = (int) (rows.epochDay(i) - firstEpochDay);
+            mergedRates[currency * dayCount + day] = rows.rate(i);
+            mergedDays.set(day);
+            touched.set(currency);
+        }
+        for (int currency = touched.nextSetBit(0); currency >= 0; currency = touched.nextSetBit(currency + 1)) {
+            mergedSeries[currency] = buildSeries(currencies[currency], mergedRates, currency * dayCount, firstEpochDay, dayCount);
+        }
+        return new RateMatrix(version, currencies, currencyIds, firstEpochDay, dayCount, mergedRates, ingestedThrough,
+                mergedSeries, mergedDays, foldIn(fingerprint, rows));
+    }
+
+    private static long foldIn(long hash, ExchangeRateBatch rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            String currency = rows.currencyCode(i);
+            for (int c = 0; c < currency.length(); c++) {
+                hash = (hash ^ currency.charAt(c)) * 0x100000001b3L;
+            }
+            hash = (hash ^ rows.epochDay(i)) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(rows.rate(i))) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long computeFingerprint(String[] currencies, long firstEpochDay, int dayCount, double[] rates) {
+        long hash = 0xcbf29ce484222325L;
+        for (String currency : currencies) {
+            for (int i = 0; i < currency.length(); i++) {
+                hash = (hash ^ currency.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        hash = (hash ^ firstEpochDay) * 0x100000001b3L;
+        hash = (hash ^ dayCount) * 0x100000001b3L;
+        for (double rate : rates) {
+            hash = (hash ^ Double.doubleToLongBits(rate)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static BitSet buildObservedDays(RateSeries[] series, long firstEpochDay, int dayCount) {
+        BitSet days = new BitSet(dayCount);
+        for (RateSeries currencySeries : series) {
+            for (int i = 0; i < currencySeries.size(); i++) {
+                days.set((int) (currencySeries.epochDay(i) - firstEpochDay));
+            }
+        }
+        return days;
+    }
+
+    private static RateSeries buildSeries(String currencyCode, double[] rates, int offset, long firstEpochDay, int dayCount) {
+        int count = 0;
+        for (int day = 0; day < dayCount; day++) {
+            if (!Double.isNaN(rates[offset + day])) {
+                count++;
+            }
+        }
+        long[] days = new long[count];
+        double[] values = new double[count];
+        int next = 0;
+        for (int day = 0; day < dayCount; day++) {
+            double rate = rates[offset + day];
+            if (!Double.isNaN(rate)) {
+                days[next] = firstEpochDay + day;
+                values[next++] = rate;
+            }
+        }
+        return new RateSeries(currencyCode, days, values);
+    }
+
+    /**
+     * Collects observations in primitive columns and lays them out as a matrix on {@link #build()}.
+     * Later observations for the same currency and day overwrite earlier ones.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> codeIds = new HashMap<>();
+        private String[] codes = new String[64];
+        private int[] currencyColumn = new int[1024];
+        private long[] dayColumn = new long[1024];
+        private double[] rateColumn = new double[1024];
+        private int size;
+        private long minDay = Long.MAX_VALUE;
+        private long maxDay = Long.MIN_VALUE;
+        private long version;
+        private long ingestedThrough = Long.MIN_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Marks the days up to the given one as loaded by a completed ingest, see {@link RateMatrix#isIngested(long)}.
+         */
+        public Builder ingestedThrough(long epochDay) {
+            this.ingestedThrough = epochDay;
+            return this;
+        }
+
+        public Builder add(String currencyCode, long epochDay, double rate) {
+            if (size == rateColumn.length) {
+                int capacity = size * 2;
+                currencyColumn = Arrays.copyOf(currencyColumn, capacity);
+                dayColumn = Arrays.copyOf(dayColumn, capacity);
+                rateColumn = Arrays.copyOf(rateColumn, capacity);
+            }
+            currencyColumn[size] = idOf(currencyCode);
+            dayColumn[size] = epochDay;
+            rateColumn[size] = rate;
+            size++;
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+            return this;
+        }
+
+        /**
+         * Copies every observation of an existing matrix, e.g. to merge new rows into a published snapshot.
+         */
+        public Builder addAll(RateMatrix matrix) {
+            for (int currency = 0; currency < matrix.currencies.length; currency++) {
+                int offset = currency * matrix.dayCount;
+                for (int day = 0; day < matrix.dayCount; day++) {
+                    double rate = matrix.rates[offset + day];
+                    if (!Double.isNaN(rate)) {
+                        add(matrix.currencies[currency], matrix.firstEpochDay + day, rate);
+                    }
+                }
+            }
+            return this;
+        }
+
+        public RateMatrix build() {
+            if (size == 0) {
+                return version == 0 ? EMPTY
+                        : of(version, new String[0], Collections.emptyMap(), 0L, 0, new double[0], Long.MIN_VALUE);
+            }
+            int currencyCount = codeIds.size();
+
+            // Assign dense ids in alphabetical order so iteration order is stable across rebuilds.
+            String[] sortedCodes = Arrays.copyOf(codes, currencyCount);
+            Arrays.sort(sortedCodes);
+            Map<String, Integer> sortedIds = new HashMap<>(currencyCount * 2);
+            for (int i = 0; i < currencyCount; i++) {
+                sortedIds.put(sortedCodes[i], i);
+            }
+            int[] remap = new int[currencyCount];
+            for (int i = 0; i < currencyCount; i++) {
+                remap[i] = sortedIds.get(codes[i]);
+            }
+
+            int dayCount = Math.toIntExact(maxDay - minDay + 1);
+            double[] rates = new double[Math.multiplyExact(currencyCount, dayCount)];
+            Arrays.fill(rates, Double.NaN);
+            for (int i = 0; i < size; i++) {
+                rates[remap[currencyColumn[i]] * dayCount + (int) (dayColumn[i] - minDay)] = rateColumn[i];
+            }
+            return of(version, sortedCodes, Collections.unmodifiableMap(sortedIds), minDay, dayCount, rates, ingestedThrough);
+        }
+
+        private int idOf(String currencyCode) {
+            Integer id = codeIds.get(currencyCode);
+            if (id != null) {
+                return id;
+            }
+            int newId = codeIds.size();
+            if (newId == codes.length) {
+                codes = Arrays.copyOf(codes, newId * 2);
+            }
+            codes[newId] = currencyCode;
+            codeIds.put(currencyCode, newId);
+            return newId;
+        }
+    }
+}
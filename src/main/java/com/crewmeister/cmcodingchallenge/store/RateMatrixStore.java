@@ -0,0 +1,87 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the currently published {@link RateMatrix}.
+ * Readers always see a complete matrix; rebuilds and merges swap in a new matrix atomically,
+ * so a running ingest never blocks or degrades reads.
+ */
+@Component
+public class RateMatrixStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateMatrixStore.class);
+
+    private final ExchangeRateBatchRepository exchangeRateBatchRepository;
+    private final AtomicReference<RateMatrix> current = new AtomicReference<>(RateMatrix.empty());
+    private long lastFingerprint = RateMatrix.empty().fingerprint();
+    private volatile long lastModified = -1;
+
+    public RateMatrixStore(ExchangeRateBatchRepository exchangeRateBatchRepository) {
+        this.exchangeRateBatchRepository = exchangeRateBatchRepository;
+    }
+
+    public RateMatrix current() {
+        return current.get();
+    }
+
+    /**
+     * Publishes a prebuilt matrix, replacing the current one.
+     */
+    public void publish(RateMatrix matrix) {
+        current.set(matrix);
+        recordPublication(matrix);
+    }
+
+    /**
+     * Epoch millis of the last publication that changed the content, or {@code -1} before the first one.
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Rebuilds the matrix from every stored exchange rate and publishes it.
+     * Rows are streamed over JDBC, so loading a persisted history at boot takes no entity per row.
+     * The range covered by completed ingests is taken from their sync marks.
+     */
+    public RateMatrix rebuild() {
+        RateMatrix.Builder builder = RateMatrix.builder();
+        exchangeRateBatchRepository.findSyncedThrough().values().stream()
+                .max(LocalDate::compareTo)
+                .ifPresent(date -> builder.ingestedThrough(date.toEpochDay()));
+        exchangeRateBatchRepository.forEachRate(builder::add);
+        RateMatrix matrix = current.updateAndGet(previous -> builder.version(previous.version() + 1).build());
+        recordPublication(matrix);
+        logger.info("Published rate matrix v{} with {} currencies over {} days",
+                matrix.version(), matrix.currencyCount(), matrix.dayCount());
+        return matrix;
+    }
+
+    /**
+     * Publishes a copy of the current matrix extended with rows fetched on demand, see
+     * {@link RateMatrix#mergedWith(ExchangeRateBatch)}. The version is kept, since the rows only fill days that had
+     * no rates before and no cached response body describes them. Fingerprint and last modification time change:
+     * a client holding a previous-business-day fallback for one of those days must get the new answer when it
+     * revalidates. The rows do not extend the ingested range.
+     */
+    public RateMatrix merge(ExchangeRateBatch rows) {
+        RateMatrix matrix = current.updateAndGet(previous -> previous.mergedWith(rows));
+        recordPublication(matrix);
+        return matrix;
+    }
+
+    private synchronized void recordPublication(RateMatrix matrix) {
+        if (matrix.fingerprint() != lastFingerprint) {
+            lastFingerprint = matrix.fingerprint();
+            lastModified = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import java.util.Arrays;
+
+/**
+ * Immutable observations of one currency as parallel columns sorted by epoch day, without gaps for missing days.
+ * Ranges are views sharing the columns of the full series, so slicing never copies.
+ */
+public final class RateSeries {
+
+    private final String currencyCode;
+    private final long[] epochDays;
+    private final double[] rates;
+    private final int start;
+    private final int end;
+
+    RateSeries(String currencyCode, long[] epochDays, double[] rates) {
+        this(currencyCode, epochDays, rates, 0, epochDays.length);
+    }
+
+    private RateSeries(String currencyCode, long[] epochDays, double[] rates, int start, int end) {
+        this.currencyCode = currencyCode;
+        this.epochDays = epochDays;
+        this.rates = rates;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String currencyCode() {
+        return currencyCode;
+    }
+
+    public int size() {
+        return end - start;
+    }
+
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    public long epochDay(int index) {
+        return epochDays[start + index];
+    }
+
+    public double rate(int index) {
+        return rates[start + index];
+    }
+
+    /**
+     * Index of the latest observation on or before the given day, or {@code -1} if there is none.
+     */
+    public int indexAtOrBefore(long epochDay) {
+        int index = Arrays.binarySearch(epochDays, start, end, epochDay);
+        return (index >= 0 ? index : -index - 2) - start;
+    }
+
+    /**
+     * Observations between both days inclusive, located by binary search.
+     */
+    public RateSeries between(long fromEpochDay, long toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            return new RateSeries(currencyCode, epochDays, rates, start, start);
+        }
+        int from = Arrays.binarySearch(epochDays, start, end, fromEpochDay);
+        int to = Arrays.binarySearch(epochDays, start, end, toEpochDay);
+        // Days are unique, so a hit on the upper bound is included and a miss yields the insertion point.
+        from = from >= 0 ? from : -from - 1;
+        to = to >= 0 ? to + 1 : -to - 1;
+        return new RateSeries(currencyCode, epochDays, rates, from, to);
+    }
+}
@@ -0,0 +1,148 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of response bodies already serialized to JSON, keyed by endpoint and parameters.
+ * Every entry remembers the {@link RateMatrix} version it was rendered from and is ignored once a newer snapshot
+ * has been published, so ingests invalidate the cache without explicit eviction. Bounded by entry count and bytes.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private final RateMatrixStore rateMatrixStore;
+    private final ObjectMapper objectMapper;
+    private final ForexMetrics metrics;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public SerializedResponseCache(RateMatrixStore rateMatrixStore, ObjectMapper objectMapper, ForexMetrics metrics,
+                                   @Value("${forex.response-cache.max-entries:1024}") int maxEntries,
+                                   @Value("${forex.response-cache.max-bytes:33554432}") long maxBytes) {
+        this.rateMatrixStore = rateMatrixStore;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached bytes for the key if they were rendered from the current snapshot, otherwise
+     * serializes the produced value and caches it. Errors are passed through and never cached.
+     * The response is about the given date: the date the produced value is actually about, as extracted by
+     * {@code dateOf}, is kept with the bytes, so cache headers can be chosen for a cached body without parsing it.
+     * Values about another date, i.e. previous-business-day fallbacks, are served but not
+     * cached: fetching the requested date on demand changes the answer without publishing a new snapshot version.
+     */
+    public <T> Mono<Rendered> get(String key, String date, Supplier<Mono<T>> producer, Function<? super T, String> dateOf) {
+        return Mono.defer(() -> {
+            long version = rateMatrixStore.current().version();
+            Rendered cached = lookup(key, version);
+            if (cached != null) {
+                metrics.responseCacheHit();
+                return Mono.just(cached);
+            }
+            metrics.responseCacheMiss();
+            return producer.get().map(value -> {
+                Rendered rendered = new Rendered(serialize(value), dateOf.apply(value));
+                // Tagged with the version read before producing: if a newer snapshot appeared meanwhile, the
+                // entry is simply never hit.
+                if (Objects.equals(date, rendered.date)) {
+                    store(key, version, rendered);
+                }
+                return rendered;
+            });
+        });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Rendered lookup(String key, long version) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.rendered;
+    }
+
+    private synchronized void store(String key, long version, Rendered rendered) {
+        if (rendered.body.length > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(version, rendered));
+        if (previous != null) {
+            totalBytes -= previous.rendered.body.length;
+        }
+        totalBytes += rendered.body.length;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || totalBytes > maxBytes) {
+            totalBytes -= eldest.next().getValue().rendered.body.length;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        totalBytes -= entry.rendered.body.length;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A serialized body and the date it is about, {@code null} when the producer did not name one.
+     */
+    public static final class Rendered {
+        private final byte[] body;
+        private final String date;
+
+        private Rendered(byte[] body, String date) {
+            this.body = body;
+            this.date = date;
+        }
+
+        public byte[] body() {
+            return body;
+        }
+
+        public String date() {
+            return date;
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final Rendered rendered;
+
+        private Entry(long version, Rendered rendered) {
+            this.version = version;
+            this.rendered = rendered;
+        }
+    }
+}
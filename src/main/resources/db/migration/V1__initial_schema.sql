@@ -0,0 +1,15 @@
+-- Schema as previously generated by Hibernate. Databases created before Flyway are baselined at this version.
+CREATE TABLE IF NOT EXISTS currencies (
+    code VARCHAR(3)   NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (code)
+);
+
+CREATE TABLE IF NOT EXISTS exchange_rates (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    currency_code   VARCHAR(255),
+    date            VARCHAR(255),
+    exchange_rate   DOUBLE NOT NULL,
+    target_currency VARCHAR(255),
+    PRIMARY KEY (id)
+);
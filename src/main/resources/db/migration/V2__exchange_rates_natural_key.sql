@@ -0,0 +1,20 @@
+-- Replaces the surrogate id with the natural (currency_code, date) key and stores dates as DATE.
+-- Duplicate rows of the same observation carry the same rate and collapse into one.
+CREATE TABLE exchange_rates_v2 (
+    currency_code   VARCHAR(3) NOT NULL,
+    date            DATE       NOT NULL,
+    target_currency VARCHAR(3),
+    exchange_rate   DOUBLE     NOT NULL,
+    CONSTRAINT pk_exchange_rates PRIMARY KEY (currency_code, date)
+);
+
+INSERT INTO exchange_rates_v2 (currency_code, date, target_currency, exchange_rate)
+SELECT currency_code, CAST(date AS DATE), MAX(target_currency), MAX(exchange_rate)
+FROM exchange_rates
+WHERE currency_code IS NOT NULL AND date IS NOT NULL
+GROUP BY currency_code, CAST(date AS DATE);
+
+DROP TABLE exchange_rates;
+ALTER TABLE exchange_rates_v2 RENAME TO exchange_rates;
+
+CREATE INDEX idx_exchange_rates_date_currency ON exchange_rates (date, currency_code);
@@ -0,0 +1,9 @@
+-- Last day of each currency's series stored by a completed Bundesbank ingest. Incremental refreshes resume from
+-- here rather than from MAX(date) of exchange_rates, which on-demand fetches of single days move ahead.
+-- Left empty: the first refresh after this migration runs a full reload, which only inserts missing keys and so
+-- also fills days an earlier refresh skipped.
+CREATE TABLE rate_sync_state (
+    currency_code  VARCHAR(3) NOT NULL,
+    synced_through DATE       NOT NULL,
+    CONSTRAINT pk_rate_sync_state PRIMARY KEY (currency_code)
+);
@@ -1,11 +1,24 @@
 package com.crewmeister.cmcodingchallenge;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
-@SpringBootTest
+import java.nio.file.Path;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:forexdb")
 class CmCodingChallengeApplicationTests {
 
+	@TempDir
+	static Path spoolDirectory;
+
+	@DynamicPropertySource
+	static void spoolInTempDir(DynamicPropertyRegistry registry) {
+		registry.add("forex.ingest.spool.directory", spoolDirectory::toString);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,87 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BundesbankCsvDecoderTest {
+
+    private static final String CSV = "DATAFLOW;FREQ;CURRENCY;PARTNER;TYPE;RATE;SUFFIX;TIME_PERIOD;OBS_VALUE\r\n"
+            + "BBK:BBEX3(1.0);D;AUD;EUR;BB;AC;000;1999-01-04;1.91\r\n"
+            + "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-02-29; 1.0813 \r\n"
+            + "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-09;.\r\n"
+            + "BBK:BBEX3(1.0);D;JPY;EUR;BB;AC;000;2023-02-30;140.5\r\n"
+            + "BBK:BBEX3(1.0);D;JPY;EUR;BB;AC;000;2023-03-01;145\r\n"
+            + "garbage\r\n"
+            + "BBK:BBEX3(1.0);D;GBP;EUR;BB;AC;000;2008-12-29;0.97855";
+
+    @Test
+    void decode_ReadsRatesAndSkipsMissingOrMalformedRows() throws IOException {
+        // Given
+        List<String> rates = new ArrayList<>();
+        BundesbankCsvDecoder decoder = new BundesbankCsvDecoder(
+                (currency, epochDay, rate) -> rates.add(currency + " " + LocalDate.ofEpochDay(epochDay) + " " + rate));
+
+        // When
+        decoder.decode(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.US_ASCII)));
+
+        // Then
+        assertEquals(Arrays.asList(
+                "AUD 1999-01-04 1.91",
+                "USD 2024-02-29 1.0813",
+                "JPY 2023-03-01 145.0",
+                "GBP 2008-12-29 0.97855"), rates);
+        assertEquals(4, decoder.rates());
+        assertEquals(3, decoder.skippedLines());
+        assertEquals(CSV.length(), decoder.bytesRead());
+    }
+
+    @Test
+    void feed_HandlesLinesSplitAcrossBuffers() {
+        // Given
+        List<String> currencies = new ArrayList<>();
+        BundesbankCsvDecoder decoder = new BundesbankCsvDecoder((currency, epochDay, rate) -> currencies.add(currency));
+        byte[] bytes = CSV.getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        for (int offset = 0; offset < bytes.length; offset += 7) {
+            decoder.feed(ByteBuffer.wrap(bytes, offset, Math.min(7, bytes.length - offset)));
+        }
+        decoder.finish();
+
+        // Then
+        assertEquals(Arrays.asList("AUD", "USD", "JPY", "GBP"), currencies);
+    }
+
+    @Test
+    void decode_InternsCurrencyCodes() {
+        // Given
+        List<String> codes = new ArrayList<>();
+        BundesbankCsvDecoder decoder = new BundesbankCsvDecoder((currency, epochDay, rate) -> codes.add(currency), false);
+        byte[] line = "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-02-29;1.0813\n".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        decoder.feed(line, 0, line.length);
+        decoder.feed(line, 0, line.length);
+
+        // Then
+        assertEquals(2, codes.size());
+        assertSame(codes.get(0), codes.get(1));
+    }
+
+    @Test
+    void toEpochDay_MatchesLocalDate() {
+        for (LocalDate date = LocalDate.parse("1899-12-25"); date.isBefore(LocalDate.parse("2101-01-10")); date = date.plusDays(13)) {
+            assertEquals(date.toEpochDay(), BundesbankCsvDecoder.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkedBodyInputStreamTest {
+
+    @Test
+    void read_ConcatenatesChunks() throws IOException {
+        // Given
+        Flux<byte[]> body = Flux.just("AB", "", "CDE", "F").map(s -> s.getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new ChunkedBodyInputStream(body, 2).awaitFirstChunk()) {
+            byte[] buffer = new byte[2];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        // Then
+        assertEquals("ABCDEF", out.toString("US-ASCII"));
+    }
+
+    @Test
+    void awaitFirstChunk_ThrowsUpstreamError() {
+        // Given
+        Flux<byte[]> body = Flux.error(new BundesbankException("Bundesbank API error: 503", HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Then
+        assertThrows(BundesbankException.class, () -> new ChunkedBodyInputStream(body, 2).awaitFirstChunk());
+    }
+
+    @Test
+    void read_ErrorAfterFirstChunk_IsIOException() throws IOException {
+        // Given
+        Flux<byte[]> body = Flux.concat(Flux.just(new byte[]{1}),
+                Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException("reset"))));
+        InputStream in = new ChunkedBodyInputStream(body, 2).awaitFirstChunk();
+
+        // When
+        assertEquals(1, in.read());
+
+        // Then
+        assertThrows(IOException.class, in::read);
+    }
+
+    @Test
+    void close_CancelsDownload() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<byte[]> body = Flux.<byte[]>never().startWith(new byte[]{1}).doOnCancel(() -> cancelled.set(true));
+
+        // When
+        new ChunkedBodyInputStream(body, 2).awaitFirstChunk().close();
+
+        // Then
+        assertTrue(cancelled.get());
+    }
+}
@@ -0,0 +1,70 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DatasetSpoolTest {
+
+    private static final String CSV = "DATAFLOW;FREQ;CURRENCY;PARTNER;TYPE;RATE;SUFFIX;TIME_PERIOD;OBS_VALUE\n"
+            + "BBK:BBEX3(1.0);D;AUD;EUR;BB;AC;000;1999-01-04;1.91\n"
+            + "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-02-29;1.0813\n"
+            + "BBK:BBEX3(1.0);D;GBP;EUR;BB;AC;000;2008-12-29;0.97855";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void download_PublishesCompletedFileAndDecodesItAcrossRegions() throws IOException {
+        // Given
+        BundesbankClient client = mock(BundesbankClient.class);
+        when(client.downloadAllExchangeRatesCsv(any())).thenAnswer(invocation -> Mono.fromCallable(
+                () -> Files.write(invocation.<Path>getArgument(0), CSV.getBytes(StandardCharsets.US_ASCII))).then());
+        DatasetSpool spool = new DatasetSpool(client, true, directory.resolve("spool"), 16);
+        List<String> currencies = new ArrayList<>();
+
+        // When
+        Path file = spool.download();
+        spool.decode(file, new BundesbankCsvDecoder((currency, epochDay, rate) -> currencies.add(currency + " " + rate)));
+
+        // Then
+        assertEquals(Arrays.asList("AUD 1.91", "USD 1.0813", "GBP 0.97855"), currencies);
+        assertEquals(file, spool.pendingDataset().orElse(null));
+        spool.discard(file);
+        assertFalse(spool.pendingDataset().isPresent());
+    }
+
+    @Test
+    void download_Failure_LeavesNoPartialDataset() throws IOException {
+        // Given
+        BundesbankClient client = mock(BundesbankClient.class);
+        when(client.downloadAllExchangeRatesCsv(any())).thenAnswer(invocation -> Mono.fromCallable(
+                () -> Files.write(invocation.<Path>getArgument(0), "BBK:BBEX3".getBytes(StandardCharsets.US_ASCII)))
+                .then(Mono.error(new BundesbankException("Bundesbank API error: 503", HttpStatus.SERVICE_UNAVAILABLE))));
+        DatasetSpool spool = new DatasetSpool(client, true, directory, 16);
+
+        // When
+        assertThrows(BundesbankException.class, spool::download);
+
+        // Then
+        assertFalse(spool.pendingDataset().isPresent());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.crewmeister.cmcodingchallenge.client;
+
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SdmxExchangeRateDecoderTest {
+
+    private static final String JSON = "{\"header\":{\"id\":\"BBEX3\"},\"data\":{"
+            + "\"dataSets\":[{\"action\":\"Information\",\"series\":{"
+            + "\"0:0:0:0:0:0\":{\"attributes\":[0],\"observations\":{\"0\":[\"1.6193\"],\"2\":[\"1.6178\"]}},"
+            + "\"0:1:0:0:0:0\":{\"attributes\":[0],\"observations\":{\"0\":[\"1.0812\"],\"1\":[null],\"2\":[1.0827]}}}}],"
+            + "\"structure\":{\"dimensions\":{\"series\":["
+            + "{\"id\":\"BBK_STD_FREQ\",\"values\":[{\"id\":\"D\"}]},"
+            + "{\"id\":\"BBK_STD_CURRENCY\",\"values\":[{\"id\":\"AUD\",\"name\":\"Australian dollar\"},{\"id\":\"USD\"}]}],"
+            + "\"observation\":[{\"id\":\"TIME_PERIOD\",\"values\":[{\"id\":\"2024-01-02\"},{\"id\":\"2024-01-03\"},{\"id\":\"2024-01-04\"}]}]}}}}";
+
+    @Test
+    void finish_ResolvesObservationsAgainstStructureSentAfterData() throws IOException {
+        // Given
+        SdmxExchangeRateDecoder decoder = new SdmxExchangeRateDecoder();
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        for (int offset = 0; offset < bytes.length; offset += 5) {
+            decoder.feed(ByteBuffer.wrap(bytes, offset, Math.min(5, bytes.length - offset)));
+        }
+        List<ExchangeRateResponse> rates = decoder.finish();
+
+        // Then
+        assertEquals(Arrays.asList(
+                "AUD 2024-01-02 1.6193",
+                "AUD 2024-01-04 1.6178",
+                "USD 2024-01-02 1.0812",
+                "USD 2024-01-04 1.0827"), rates.stream()
+                .map(rate -> rate.getCurrencyCode() + " " + rate.getDate() + " " + rate.getExchangeRate())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void parseExchangeRates_ReturnsEmptyListForMalformedJson() {
+        // Given
+        BundesbankClientResponseParser parser = new BundesbankClientResponseParser();
+
+        // Then
+        assertTrue(parser.parseExchangeRates("{\"data\":").isEmpty());
+        assertTrue(parser.parseExchangeRates("{\"data\":{\"dataSets\":[]}}").isEmpty());
+    }
+}
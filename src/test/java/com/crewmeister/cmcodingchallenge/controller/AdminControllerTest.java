@@ -0,0 +1,77 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminControllerTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Test
+    void reloadExchangeRates_Started_Accepted() {
+        // Given
+        AdminController controller = new AdminController(exchangeRateService, "s3cret");
+        when(exchangeRateService.startReload()).thenReturn(true);
+
+        // When
+        HttpStatus status = controller.reloadExchangeRates("Bearer s3cret").getStatusCode();
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, status);
+    }
+
+    @Test
+    void reloadExchangeRates_WhenAnotherUpdateHoldsTheSlot_Conflict() {
+        // Given
+        AdminController controller = new AdminController(exchangeRateService, "s3cret");
+        when(exchangeRateService.startReload()).thenReturn(false);
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> controller.reloadExchangeRates("Bearer s3cret"));
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
+
+    @Test
+    void replayExchangeRates_WrongToken_Unauthorized() {
+        // Given
+        AdminController controller = new AdminController(exchangeRateService, "s3cret");
+
+        // When
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> controller.replayExchangeRates(null));
+        ResponseStatusException wrong = assertThrows(ResponseStatusException.class,
+                () -> controller.replayExchangeRates("Bearer s3cre"));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, missing.getStatus());
+        assertEquals(HttpStatus.UNAUTHORIZED, wrong.getStatus());
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void reloadExchangeRates_WithoutConfiguredToken_Forbidden() {
+        // Given
+        AdminController controller = new AdminController(exchangeRateService, "");
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> controller.reloadExchangeRates("Bearer "));
+
+        // Then
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+        verifyNoInteractions(exchangeRateService);
+    }
+}
@@ -0,0 +1,132 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.dto.CurrencyConversionRequest;
+import com.crewmeister.cmcodingchallenge.dto.ExchangedCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateControllerTest {
+
+    private static final String ENTRY = "{\"currency\":\"USD\",\"date\":\"2024-01-05\",\"amount\":100}";
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    private ExchangeRateController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ExchangeRateController(exchangeRateService, null, null, new ObjectMapper());
+    }
+
+    @Test
+    void convertBatchToEUR_ReadsTheArrayEntryByEntry() {
+        // Given
+        when(exchangeRateService.exchangeCurrenciesWithEuro(any())).thenReturn(Collections.emptyList());
+
+        // When
+        controller.convertBatchToEUR(body("[" + ENTRY + ",null," + ENTRY + "]"));
+
+        // Then
+        verify(exchangeRateService).exchangeCurrenciesWithEuro(argThat((List<CurrencyConversionRequest> requests) ->
+                requests.size() == 3 && "USD".equals(requests.get(0).getCurrency()) && requests.get(1) == null));
+    }
+
+    @Test
+    void convertBatchToEUR_OverTheLimit_RejectedBeforeTheRestIsParsed() {
+        // Given
+        String entries = String.join(",", Collections.nCopies(ExchangeRateService.MAX_CONVERSION_BATCH_SIZE + 1, ENTRY));
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> controller.convertBatchToEUR(body("[" + entries + ",{not json")));
+
+        // Then
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exception.getStatus());
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void convertBatchToEUR_NotAnArray_SignalsBadRequest() {
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> controller.convertBatchToEUR(body(ENTRY)));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void convertNdjsonBatchToEUR_OverTheLimit_RejectedBeforeTheRestIsParsed() {
+        // Given
+        String lines = String.join("\n", Collections.nCopies(ExchangeRateService.MAX_CONVERSION_BATCH_SIZE + 1, ENTRY));
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> controller.convertNdjsonBatchToEUR(body(lines + "\n{not json")));
+
+        // Then
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exception.getStatus());
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void convertToEUR_FallbackRevalidatedAfterTheRequestedDayWasMerged_IsAnsweredAgain() {
+        // Given
+        RateMatrixStore store = new RateMatrixStore(null);
+        store.publish(RateMatrix.builder().version(1)
+                .add("USD", LocalDate.parse("2024-01-05").toEpochDay(), 1.0942).build());
+        ExchangeRateController cachingController =
+                new ExchangeRateController(exchangeRateService, null, new RateHttpCaching(store), new ObjectMapper());
+        when(exchangeRateService.exchangeCurrencyWithEuro("USD", "2024-01-08", 100, true))
+                .thenReturn(new ExchangedCurrencyAmountResponse("USD", "2024-01-05", 100, 1.0942, 91.39))
+                .thenReturn(new ExchangedCurrencyAmountResponse("USD", "2024-01-08", 100, 1.0921, 91.57));
+        MockHttpServletResponse fallback = new MockHttpServletResponse();
+        cachingController.convertToEUR("USD", "2024-01-08", 100, true,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/currency-exchange-euro"), fallback));
+        ExchangeRateBatch fetched = new ExchangeRateBatch(1);
+        fetched.add("USD", LocalDate.parse("2024-01-08").toEpochDay(), 1.0921);
+        store.merge(fetched);
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/v1/currency-exchange-euro");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, fallback.getHeader(HttpHeaders.ETAG));
+
+        // When
+        ResponseEntity<?> response = cachingController.convertToEUR("USD", "2024-01-08", 100, true,
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(exchangeRateService, times(2)).exchangeCurrencyWithEuro("USD", "2024-01-08", 100, true);
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
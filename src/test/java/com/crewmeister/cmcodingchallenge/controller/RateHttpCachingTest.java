@@ -0,0 +1,70 @@
+package com.crewmeister.cmcodingchallenge.controller;
+
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateHttpCachingTest {
+
+    private final RateMatrixStore rateMatrixStore = new RateMatrixStore(null);
+    private final RateHttpCaching httpCaching = new RateHttpCaching(rateMatrixStore);
+
+    @BeforeEach
+    void setUp() {
+        publishIngestedThrough(LocalDate.parse("2024-01-31"));
+    }
+
+    @Test
+    void headersFor_ExactPastDay_IsImmutable() {
+        // When
+        HttpHeaders headers = httpCaching.headersFor("2024-01-05", "2024-01-05");
+
+        // Then
+        assertTrue(headers.getCacheControl().contains("immutable"));
+    }
+
+    @Test
+    void headersFor_PreviousBusinessDayFallback_IsRevalidated() {
+        // When
+        HttpHeaders headers = httpCaching.headersFor("2024-01-07", "2024-01-05");
+
+        // Then
+        assertEquals("no-cache", headers.getCacheControl());
+    }
+
+    @Test
+    void headersFor_TodayOrUnparsableDate_IsRevalidated() {
+        // Given
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+
+        // Then
+        assertEquals("no-cache", httpCaching.headersFor(today, today).getCacheControl());
+        assertEquals("no-cache", httpCaching.headersFor("07.01.2024", "07.01.2024").getCacheControl());
+    }
+
+    @Test
+    void headersFor_PastDayAfterTheIngestedRange_IsRevalidated() {
+        // Given
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        publishIngestedThrough(yesterday.minusDays(1));
+
+        // Then
+        assertEquals("no-cache", httpCaching.headersFor(yesterday.toString()).getCacheControl());
+        assertEquals("no-cache", httpCaching.headersFor(yesterday).getCacheControl());
+        assertTrue(httpCaching.headersFor(yesterday.minusDays(1)).getCacheControl().contains("immutable"));
+    }
+
+    private void publishIngestedThrough(LocalDate day) {
+        rateMatrixStore.publish(RateMatrix.builder().version(1)
+                .add("USD", day.toEpochDay(), 1.0942)
+                .ingestedThrough(day.toEpochDay())
+                .build());
+    }
+}
@@ -0,0 +1,69 @@
+package com.crewmeister.cmcodingchallenge.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ExchangeRateBatchRepository.class)
+public class ExchangeRateBatchRepositoryTest {
+
+    @Autowired
+    private ExchangeRateBatchRepository exchangeRateBatchRepository;
+
+    @Test
+    void markSynced_NeverMovesTheMarkBackwards() {
+        // Given
+        Map<String, Long> firstIngest = new HashMap<>();
+        firstIngest.put("USD", LocalDate.parse("2024-01-10").toEpochDay());
+        firstIngest.put("GBP", LocalDate.parse("2024-01-05").toEpochDay());
+        exchangeRateBatchRepository.markSynced(firstIngest);
+
+        Map<String, Long> secondIngest = new HashMap<>();
+        secondIngest.put("USD", LocalDate.parse("2024-01-08").toEpochDay());
+        secondIngest.put("GBP", LocalDate.parse("2024-01-09").toEpochDay());
+
+        // When
+        exchangeRateBatchRepository.markSynced(secondIngest);
+
+        // Then
+        Map<String, LocalDate> syncedThrough = exchangeRateBatchRepository.findSyncedThrough();
+        assertEquals(LocalDate.parse("2024-01-10"), syncedThrough.get("USD"));
+        assertEquals(LocalDate.parse("2024-01-09"), syncedThrough.get("GBP"));
+    }
+
+    @Test
+    void batchMerge_DayFetchedOnDemand_DoesNotMoveTheSyncMark() {
+        // Given
+        exchangeRateBatchRepository.markSynced(Collections.singletonMap("USD", LocalDate.parse("2024-01-05").toEpochDay()));
+        ExchangeRateBatch fetched = new ExchangeRateBatch(1);
+        fetched.add("USD", LocalDate.parse("2024-01-12").toEpochDay(), 1.0921);
+
+        // When
+        exchangeRateBatchRepository.batchMerge(fetched);
+
+        // Then
+        assertEquals(LocalDate.parse("2024-01-12"), exchangeRateBatchRepository.findLatestDates().get("USD"));
+        assertEquals(LocalDate.parse("2024-01-05"), exchangeRateBatchRepository.findSyncedThrough().get("USD"));
+    }
+
+    @Test
+    void batchInsert_KeyStoredMeanwhile_SignalsDuplicateKey() {
+        // Given
+        ExchangeRateBatch fetched = new ExchangeRateBatch(1);
+        fetched.add("USD", LocalDate.parse("2024-01-12").toEpochDay(), 1.0921);
+        exchangeRateBatchRepository.batchMerge(fetched);
+
+        // Then
+        assertThrows(DuplicateKeyException.class, () -> exchangeRateBatchRepository.batchInsert(fetched));
+    }
+}
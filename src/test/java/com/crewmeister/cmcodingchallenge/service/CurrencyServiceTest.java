@@ -4,15 +4,22 @@ import com.crewmeister.cmcodingchallenge.client.BundesbankClientImpl;
 import com.crewmeister.cmcodingchallenge.dto.CurrencyDTO;
 import com.crewmeister.cmcodingchallenge.model.CurrencyEntity;
 import com.crewmeister.cmcodingchallenge.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.store.CurrencyCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -28,12 +35,15 @@ public class CurrencyServiceTest {
     private CurrencyRepository currencyRepository;
 
     private CurrencyService currencyService;
+    private long now;
     private List<CurrencyDTO> mockCurrencyDTOs;
     private List<CurrencyEntity> mockCurrencyEntities;
 
     @BeforeEach
     void setUp() {
-        currencyService = new CurrencyService(bundesbankClient, currencyRepository);
+        // Background loads run inline, against a clock the tests advance.
+        currencyService = new CurrencyService(bundesbankClient, currencyRepository, new ObjectMapper(), Runnable::run,
+                () -> now);
 
         mockCurrencyDTOs = Arrays.asList(
                 new CurrencyDTO("USD", "US Dollar"),
@@ -59,6 +69,7 @@ public class CurrencyServiceTest {
         // Then
         verify(bundesbankClient, times(1)).fetchCurrencies();
         verify(currencyRepository, times(1)).saveAll(anyList());
+        assertEquals(3, currencyService.getCatalog().currencies().size());
     }
 
     @Test
@@ -67,24 +78,38 @@ public class CurrencyServiceTest {
         when(bundesbankClient.fetchCurrencies()).thenThrow(new RuntimeException("API Error"));
 
         // When
-        currencyService.loadCurrenciesAtStartup();
+        CompletableFuture<CurrencyCatalog> load = currencyService.loadCurrenciesAtStartup();
 
         // Then
+        assertTrue(load.isCompletedExceptionally());
         verify(bundesbankClient, times(1)).fetchCurrencies();
         verify(currencyRepository, never()).saveAll(anyList());
     }
 
     @Test
-    void getAllCurrencies_WhenRepositoryHasData() {
+    void loadCurrenciesAtStartup_WhenAlreadyStored_SkipsDownload() {
         // Given
-        when(currencyRepository.count()).thenReturn(3L);
         when(currencyRepository.findAll()).thenReturn(mockCurrencyEntities);
 
         // When
+        currencyService.loadCurrenciesAtStartup();
+
+        // Then
+        verify(bundesbankClient, never()).fetchCurrencies();
+        verify(currencyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void getAllCurrencies_WhenRepositoryHasData_ReadsItOnce() {
+        // Given
+        when(currencyRepository.findAll()).thenReturn(mockCurrencyEntities);
+        currencyService.loadCurrenciesAtStartup();
+
+        // When
+        currencyService.getAllCurrencies();
         List<CurrencyDTO> result = currencyService.getAllCurrencies();
 
         // Then
-        verify(currencyRepository, times(1)).count();
         verify(currencyRepository, times(1)).findAll();
         verify(bundesbankClient, never()).fetchCurrencies();
 
@@ -96,15 +121,12 @@ public class CurrencyServiceTest {
     @Test
     void getAllCurrencies_WhenRepositoryIsEmpty_FetchesFromClient() {
         // Given
-        when(currencyRepository.count()).thenReturn(0L);
         when(bundesbankClient.fetchCurrencies()).thenReturn(mockCurrencyDTOs);
-        when(currencyRepository.existsByCode(anyString())).thenReturn(false);
 
         // When
         List<CurrencyDTO> result = currencyService.getAllCurrencies();
 
         // Then
-        verify(currencyRepository, times(1)).count();
         verify(bundesbankClient, times(1)).fetchCurrencies();
         verify(currencyRepository, times(1)).saveAll(anyList());
 
@@ -113,4 +135,80 @@ public class CurrencyServiceTest {
         assertEquals("US Dollar", result.get(0).getName());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAllCurrencies_LoadFails_AnswersUnavailable() {
+        // Given
+        when(bundesbankClient.fetchCurrencies()).thenThrow(new RuntimeException("API Error"));
+
+        // When
+        ResponseStatusException exception =
+                assertThrows(ResponseStatusException.class, () -> currencyService.getAllCurrencies());
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+    }
+
+    @Test
+    void getCatalog_AfterFailedLoads_RetriesWithExponentialBackoff() {
+        // Given
+        when(bundesbankClient.fetchCurrencies()).thenThrow(new RuntimeException("API Error"));
+
+        // When
+        for (int second = 0; second < 8; second++) {
+            now = TimeUnit.SECONDS.toNanos(second);
+            assertThrows(ResponseStatusException.class, () -> currencyService.getCatalog());
+            assertThrows(ResponseStatusException.class, () -> currencyService.getCatalog());
+        }
+
+        // Then: attempts at 0 s, then after 1, 2 and 4 s
+        verify(bundesbankClient, times(4)).fetchCurrencies();
+    }
+
+    @Test
+    void getCatalog_UpstreamReturnsNoCurrencies_BacksOffLikeAFailure() {
+        // Given
+        when(bundesbankClient.fetchCurrencies()).thenReturn(Collections.emptyList());
+
+        // When
+        for (int second = 0; second < 4; second++) {
+            now = TimeUnit.SECONDS.toNanos(second);
+            assertThrows(ResponseStatusException.class, () -> currencyService.getCatalog());
+            assertThrows(ResponseStatusException.class, () -> currencyService.getCatalog());
+        }
+
+        // Then: attempts at 0 s, then after 1 and 2 s
+        verify(bundesbankClient, times(3)).fetchCurrencies();
+        verify(currencyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void getCatalog_PrerendersBodyAndEtag() {
+        // Given
+        when(currencyRepository.findAll()).thenReturn(mockCurrencyEntities);
+        currencyService.loadCurrenciesAtStartup();
+
+        // When
+        CurrencyCatalog catalog = currencyService.getCatalog();
+
+        // Then
+        assertSame(catalog, currencyService.getCatalog());
+        assertTrue(new String(catalog.body(), StandardCharsets.UTF_8)
+                .startsWith("{\"success\":true,\"data\":[{\"code\":\"USD\",\"name\":\"US Dollar\"}"));
+        assertTrue(catalog.etag().startsWith("\""));
+    }
+
+    @Test
+    void refreshCurrencies_OnFailure_KeepsCurrentCatalog() {
+        // Given
+        when(currencyRepository.findAll()).thenReturn(mockCurrencyEntities);
+        currencyService.loadCurrenciesAtStartup();
+        CurrencyCatalog loaded = currencyService.getCatalog();
+        when(bundesbankClient.fetchCurrencies()).thenThrow(new RuntimeException("API Error"));
+
+        // When
+        currencyService.refreshCurrencies();
+
+        // Then
+        assertSame(loaded, currencyService.getCatalog());
+    }
+}
@@ -0,0 +1,712 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import com.crewmeister.cmcodingchallenge.client.BundesbankClientImpl;
+import com.crewmeister.cmcodingchallenge.client.BundesbankCsvDecoder;
+import com.crewmeister.cmcodingchallenge.client.DatasetSpool;
+import com.crewmeister.cmcodingchallenge.dto.CrossCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.dto.CrossRateTable;
+import com.crewmeister.cmcodingchallenge.dto.CurrencyConversionRequest;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRatePage;
+import com.crewmeister.cmcodingchallenge.dto.ExchangeRateResponse;
+import com.crewmeister.cmcodingchallenge.dto.ExchangedCurrencyAmountResponse;
+import com.crewmeister.cmcodingchallenge.exception.BundesbankException;
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatchRepository;
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateServiceTest {
+
+    private static final String CSV_HEADER = "DATAFLOW;FREQ;CURRENCY;PARTNER;TYPE;RATE;SUFFIX;TIME_PERIOD;OBS_VALUE";
+
+    @Mock
+    private BundesbankClientImpl bundesbankClient;
+
+    @Mock
+    private ExchangeRateBatchRepository exchangeRateBatchRepository;
+
+    @Mock
+    private RateMatrixStore rateMatrixStore;
+
+    @Mock
+    private DatasetSpool datasetSpool;
+
+    @Mock
+    private IngestWorkers ingestWorkers;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExchangeRateService exchangeRateService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exchangeRateService = new ExchangeRateService(bundesbankClient,
+                exchangeRateBatchRepository, rateMatrixStore, datasetSpool, ingestWorkers,
+                new FixedPointConverter(RoundingMode.HALF_UP, new String[0]), new ForexMetrics(meterRegistry),
+                transactionManager);
+    }
+
+    @Test
+    void fetchAndStoreAllExchangeRates_SkipsStoredDuplicateAndMissingRows() {
+        // Given
+        Set<Long> storedKeys = new HashSet<>();
+        storedKeys.add(ExchangeRateBatchRepository.key("AUD", LocalDate.parse("1999-01-04").toEpochDay()));
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(storedKeys);
+        when(bundesbankClient.fetchAllExchangeRatesCsv()).thenReturn(csv(
+                CSV_HEADER,
+                "BBK:BBEX3(1.0);D;AUD;EUR;BB;AC;000;1999-01-04;1.91",
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-04;1.1789",
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-04;1.1789",
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-09;."
+        ));
+        List<String> inserted = recordInsertedRows();
+
+        // When
+        exchangeRateService.fetchAndStoreAllExchangeRates();
+
+        // Then
+        verify(exchangeRateBatchRepository, times(1)).batchInsert(any());
+        assertEquals(Collections.singletonList("USD 1999-01-04 1.1789"), inserted);
+        verify(rateMatrixStore, times(1)).rebuild();
+        assertEquals(3, meterRegistry.counter("forex.ingest.rows", "result", "parsed").count());
+        assertEquals(1, meterRegistry.counter("forex.ingest.rows", "result", "inserted").count());
+        assertEquals(1, meterRegistry.timer("forex.ingest.duration", "mode", "full-stream").count());
+    }
+
+    @Test
+    void fetchAndStoreAllExchangeRates_WithSpool_StoresDownloadedFileThenDiscardsIt() throws Exception {
+        // Given
+        Path spooled = Paths.get("bbex3-full.csv");
+        when(datasetSpool.isEnabled()).thenReturn(true);
+        when(datasetSpool.download()).thenReturn(spooled);
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(new HashSet<>());
+        doAnswer(invocation -> {
+            invocation.<BundesbankCsvDecoder>getArgument(1).decode(csv(CSV_HEADER,
+                    "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-04;1.1789"));
+            return null;
+        }).when(datasetSpool).decode(eq(spooled), any());
+        List<String> inserted = recordInsertedRows();
+
+        // When
+        exchangeRateService.fetchAndStoreAllExchangeRates();
+
+        // Then
+        verify(bundesbankClient, never()).fetchAllExchangeRatesCsv();
+        assertEquals(Collections.singletonList("USD 1999-01-04 1.1789"), inserted);
+        verify(datasetSpool, times(1)).discard(spooled);
+        verify(rateMatrixStore, times(1)).rebuild();
+    }
+
+    @Test
+    void fetchAndStoreAllExchangeRates_WithSpool_KeepsFileWhenStoringFails() throws Exception {
+        // Given
+        Path spooled = Paths.get("bbex3-full.csv");
+        when(datasetSpool.isEnabled()).thenReturn(true);
+        when(datasetSpool.download()).thenReturn(spooled);
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(new HashSet<>());
+        doAnswer(invocation -> {
+            invocation.<BundesbankCsvDecoder>getArgument(1).decode(csv(CSV_HEADER,
+                    "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-04;1.1789"));
+            return null;
+        }).when(datasetSpool).decode(eq(spooled), any());
+        doThrow(new IllegalStateException("disk full")).when(exchangeRateBatchRepository).batchInsert(any());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> exchangeRateService.fetchAndStoreAllExchangeRates());
+
+        // Then
+        verify(datasetSpool, never()).discard(any());
+        verify(rateMatrixStore, times(1)).rebuild();
+    }
+
+    @Test
+    void fetchAndStoreAllExchangeRates_BatchOverlappingAnOnDemandFetch_IsMergedInItsOwnTransaction() {
+        // Given
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(new HashSet<>());
+        when(bundesbankClient.fetchAllExchangeRatesCsv()).thenReturn(csv(
+                CSV_HEADER,
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-01-05;1.0921"
+        ));
+        doThrow(new DuplicateKeyException("pk_exchange_rates")).when(exchangeRateBatchRepository).batchInsert(any());
+
+        // When
+        exchangeRateService.fetchAndStoreAllExchangeRates();
+
+        // Then
+        verify(exchangeRateBatchRepository, times(1)).batchMerge(any());
+        verify(exchangeRateBatchRepository, times(1)).markSynced(any());
+        // The failed insert, its merge retry and the sync marks each run in a transaction of their own.
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(rateMatrixStore, times(1)).rebuild();
+    }
+
+    @Test
+    void fetchAndStoreAllExchangeRates_InParallel_FetchesEveryStoredCurrencySeparately() {
+        // Given
+        ExchangeRateService parallelService = new ExchangeRateService(bundesbankClient,
+                exchangeRateBatchRepository, rateMatrixStore, datasetSpool, new IngestWorkers(true, 2),
+                new FixedPointConverter(RoundingMode.HALF_UP, new String[0]), new ForexMetrics(meterRegistry),
+                transactionManager);
+        Map<String, LocalDate> latestDates = new HashMap<>();
+        latestDates.put("USD", LocalDate.parse("2024-01-05"));
+        latestDates.put("GBP", LocalDate.parse("2024-01-05"));
+        latestDates.put("JPY", LocalDate.parse("2024-01-05"));
+        when(exchangeRateBatchRepository.findLatestDates()).thenReturn(latestDates);
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(new HashSet<>());
+        when(bundesbankClient.fetchExchangeRatesCsv("USD")).thenReturn(csv(CSV_HEADER,
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;2024-01-05;1.0921"));
+        when(bundesbankClient.fetchExchangeRatesCsv("GBP")).thenReturn(csv(CSV_HEADER,
+                "BBK:BBEX3(1.0);D;GBP;EUR;BB;AC;000;2024-01-05;0.8603"));
+        when(bundesbankClient.fetchExchangeRatesCsv("JPY")).thenThrow(new BundesbankException("Bundesbank API error: 503", HttpStatus.SERVICE_UNAVAILABLE));
+
+        // When
+        parallelService.fetchAndStoreAllExchangeRates();
+
+        // Then
+        verify(bundesbankClient, never()).fetchAllExchangeRatesCsv();
+        verify(exchangeRateBatchRepository, times(2)).batchInsert(any());
+        verify(rateMatrixStore, times(1)).rebuild();
+    }
+
+    @Test
+    void refreshExchangeRates_FetchesSinceOldestActiveHighWaterMark() {
+        // Given
+        LocalDate today = LocalDate.now();
+        Map<String, LocalDate> latestDates = new HashMap<>();
+        latestDates.put("USD", today.minusDays(2));
+        latestDates.put("GBP", today.minusDays(3));
+        latestDates.put("CYP", LocalDate.parse("2007-12-31"));
+        when(exchangeRateBatchRepository.findSyncedThrough()).thenReturn(latestDates);
+        when(bundesbankClient.fetchExchangeRatesCsvSince(today.minusDays(2))).thenReturn(csv(
+                CSV_HEADER,
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;" + today.minusDays(2) + ";1.0812",
+                "BBK:BBEX3(1.0);D;GBP;EUR;BB;AC;000;" + today.minusDays(2) + ";0.8531",
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;" + today.minusDays(1) + ";1.0827"
+        ));
+        List<String> inserted = recordInsertedRows();
+
+        // When
+        exchangeRateService.refreshExchangeRates();
+
+        // Then
+        verify(bundesbankClient, never()).fetchAllExchangeRatesCsv();
+        assertEquals(Arrays.asList("GBP " + today.minusDays(2) + " 0.8531", "USD " + today.minusDays(1) + " 1.0827"), inserted);
+    }
+
+    @Test
+    void refreshExchangeRates_DayFetchedOnDemand_DoesNotSkipTheDaysBeforeIt() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(exchangeRateBatchRepository.findSyncedThrough())
+                .thenReturn(Collections.singletonMap("USD", today.minusDays(5)));
+        when(exchangeRateBatchRepository.findKeysSince(today.minusDays(4))).thenReturn(new HashSet<>(
+                Collections.singleton(ExchangeRateBatchRepository.key("USD", today.minusDays(1).toEpochDay()))));
+        when(bundesbankClient.fetchExchangeRatesCsvSince(today.minusDays(4))).thenReturn(csv(
+                CSV_HEADER,
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;" + today.minusDays(3) + ";1.0812",
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;" + today.minusDays(1) + ";1.0827"
+        ));
+        List<String> inserted = recordInsertedRows();
+
+        // When
+        exchangeRateService.refreshExchangeRates();
+
+        // Then
+        assertEquals(Collections.singletonList("USD " + today.minusDays(3) + " 1.0812"), inserted);
+        verify(exchangeRateBatchRepository).markSynced(Collections.singletonMap("USD", today.minusDays(1).toEpochDay()));
+    }
+
+    @Test
+    void refreshExchangeRates_WhenDatabaseIsEmpty_FallsBackToFullLoad() {
+        // Given
+        when(exchangeRateBatchRepository.findSyncedThrough()).thenReturn(new HashMap<>());
+        when(bundesbankClient.fetchAllExchangeRatesCsv()).thenReturn(csv(CSV_HEADER));
+
+        // When
+        exchangeRateService.refreshExchangeRates();
+
+        // Then
+        verify(bundesbankClient, times(1)).fetchAllExchangeRatesCsv();
+        verify(bundesbankClient, never()).fetchExchangeRatesCsvSince(any());
+    }
+
+    @Test
+    void initFX_PublishesPersistedRatesBeforeFetchingDelta() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        when(exchangeRateBatchRepository.findSyncedThrough())
+                .thenReturn(Collections.singletonMap("USD", LocalDate.now()));
+
+        // When
+        exchangeRateService.initFX();
+
+        // Then
+        verify(rateMatrixStore, times(1)).rebuild();
+        verifyNoInteractions(bundesbankClient);
+    }
+
+    @Test
+    void initFX_WhileAReloadRuns_ReturnsTheFutureOfTheReload() throws Exception {
+        // Given
+        CountDownLatch reloadBlocked = new CountDownLatch(1);
+        when(exchangeRateBatchRepository.findAllKeys()).thenAnswer(invocation -> {
+            reloadBlocked.await();
+            return new HashSet<>();
+        });
+        when(bundesbankClient.fetchAllExchangeRatesCsv()).thenReturn(csv(CSV_HEADER));
+        exchangeRateService.startReload();
+
+        // When
+        CompletableFuture<Void> sync = exchangeRateService.initFX();
+
+        // Then
+        assertFalse(sync.isDone());
+        reloadBlocked.countDown();
+        sync.get(5, TimeUnit.SECONDS);
+        assertFalse(exchangeRateService.isUpdating());
+        verify(exchangeRateBatchRepository, never()).findSyncedThrough();
+    }
+
+    @Test
+    void startReload_WhileAnotherUpdateRuns_StartsNothing() {
+        // Given
+        boolean[] startedDuringRefresh = {true};
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        when(exchangeRateBatchRepository.findSyncedThrough()).thenAnswer(invocation -> {
+            startedDuringRefresh[0] = exchangeRateService.startReload();
+            return Collections.singletonMap("USD", LocalDate.now());
+        });
+
+        // When
+        exchangeRateService.initFX();
+
+        // Then
+        assertFalse(startedDuringRefresh[0]);
+        assertFalse(exchangeRateService.isUpdating());
+        verify(bundesbankClient, never()).fetchAllExchangeRatesCsv();
+    }
+
+    @Test
+    void startReplay_StoresTheSpooledDatasetInTheBackground() {
+        // Given
+        Path spooled = Paths.get("rates.csv");
+        when(datasetSpool.pendingDataset()).thenReturn(Optional.of(spooled));
+
+        // When
+        boolean started = exchangeRateService.startReplay();
+
+        // Then
+        assertTrue(started);
+        verify(datasetSpool, timeout(5000)).discard(spooled);
+        verify(rateMatrixStore, timeout(5000)).rebuild();
+    }
+
+    @Test
+    void getFxExchangeRatesOnDate_ServedFromSnapshotWhileUpdating() {
+        // Given
+        long day = LocalDate.parse("1999-01-04").toEpochDay();
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", day, 1.1789)
+                .add("AUD", day, 1.91)
+                .build());
+
+        // When
+        List<ExchangeRateResponse> rates = exchangeRateService.getFxExchangeRatesOnDate("1999-01-04");
+
+        // Then
+        assertEquals(2, rates.size());
+        assertEquals("AUD", rates.get(0).getCurrencyCode());
+        assertEquals(1.1789, rates.get(1).getExchangeRate());
+        verifyNoInteractions(bundesbankClient);
+    }
+
+    @Test
+    void exchangeCurrenciesWithEuro_ConvertsInRequestOrderFromOneSnapshot() {
+        // Given
+        long day = LocalDate.parse("1999-01-04").toEpochDay();
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", day, 1.25)
+                .add("AUD", day, 2.0)
+                .build());
+        List<CurrencyConversionRequest> requests = Arrays.asList(
+                new CurrencyConversionRequest("usd", "1999-01-04", 100.0),
+                new CurrencyConversionRequest("EUR", "1999-01-04", 7.5),
+                new CurrencyConversionRequest("AUD", "1999-01-04", 3.0),
+                new CurrencyConversionRequest("USD", "1999-01-04", 10.0));
+
+        // When
+        List<ExchangedCurrencyAmountResponse> responses = exchangeRateService.exchangeCurrenciesWithEuro(requests);
+
+        // Then
+        assertEquals(Arrays.asList(80.0, 7.5, 1.5, 8.0), responses.stream()
+                .map(ExchangedCurrencyAmountResponse::getConvertedAmount)
+                .collect(Collectors.toList()));
+        assertEquals("USD", responses.get(0).getCurrency());
+        verify(rateMatrixStore, times(1)).current();
+    }
+
+    @Test
+    void exchangeCurrenciesWithEuro_MissingRate_ThrowsNotFound() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", LocalDate.parse("1999-01-04").toEpochDay(), 1.25)
+                .build());
+        List<CurrencyConversionRequest> requests = Arrays.asList(
+                new CurrencyConversionRequest("USD", "1999-01-04", 100.0),
+                new CurrencyConversionRequest("JPY", "1999-01-04", 100.0));
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> exchangeRateService.exchangeCurrenciesWithEuro(requests));
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void exchangeCurrency_TriangulatesThroughEuro() {
+        // Given
+        long day = LocalDate.parse("1999-01-04").toEpochDay();
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", day, 1.25)
+                .add("GBP", day, 0.8)
+                .build());
+
+        // When
+        CrossCurrencyAmountResponse usdToGbp = exchangeRateService.exchangeCurrency("usd", "GBP", "1999-01-04", 100.0, false);
+        CrossCurrencyAmountResponse gbpToEur = exchangeRateService.exchangeCurrency("GBP", "EUR", "1999-01-04", 10.0, false);
+
+        // Then
+        assertEquals("USD", usdToGbp.getFrom());
+        assertEquals(0.64, usdToGbp.getExchangeRate(), 1e-12);
+        assertEquals(64.0, usdToGbp.getConvertedAmount());
+        assertEquals(12.5, gbpToEur.getConvertedAmount());
+    }
+
+    @Test
+    void exchangeCurrency_PreviousBusinessDay_UsesLatestDayQuotingBoth() {
+        // Given
+        long day = LocalDate.parse("1999-01-04").toEpochDay();
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", day, 1.25)
+                .add("GBP", day, 0.8)
+                .add("USD", day + 1, 1.5)
+                .add("GBP", day + 2, 0.9)
+                .build());
+
+        // When
+        CrossCurrencyAmountResponse response =
+                exchangeRateService.exchangeCurrency("USD", "GBP", "1999-01-09", 100.0, true);
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> exchangeRateService.exchangeCurrency("USD", "GBP", "1999-01-09", 100.0, false));
+
+        // Then
+        assertEquals("1999-01-04", response.getDate());
+        assertEquals(64.0, response.getConvertedAmount());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    @Test
+    void getCrossRateTable_ContainsEuroAndEveryQuotedCurrency() {
+        // Given
+        long day = LocalDate.parse("1999-01-04").toEpochDay();
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", day, 1.25)
+                .add("GBP", day, 0.8)
+                .add("JPY", day - 1, 130.0)
+                .build());
+
+        // When
+        CrossRateTable table = exchangeRateService.getCrossRateTable("1999-01-04", false);
+
+        // Then
+        assertEquals(Arrays.asList("EUR", "GBP", "USD"), table.getCurrencies());
+        assertEquals(3, table.getRates().length);
+        assertEquals(1.25, table.getRates()[0][2]);
+        assertEquals(1.0 / 0.8, table.getRates()[1][0]);
+        assertEquals(1.25 / 0.8, table.getRates()[1][2]);
+        assertEquals(1.0, table.getRates()[2][2]);
+    }
+
+    @Test
+    void getExchangeRatePage_ContinuesAfterCursorInTheSnapshot() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder().version(1)
+                .add("AUD", LocalDate.parse("1999-01-04").toEpochDay(), 1.91)
+                .add("USD", LocalDate.parse("1999-01-04").toEpochDay(), 1.1789)
+                .add("AUD", LocalDate.parse("1999-01-07").toEpochDay(), 1.8944)
+                .add("USD", LocalDate.parse("1999-01-07").toEpochDay(), 1.179)
+                .build());
+        String cursor = ExchangeRateService.encodeCursor("1999-01-04", "AUD");
+
+        // When
+        ExchangeRatePage page = exchangeRateService.getExchangeRatePage(cursor, 2);
+        ExchangeRatePage last = exchangeRateService.getExchangeRatePage(page.getNextCursor(), 2);
+
+        // Then
+        assertEquals(2, page.getContent().size());
+        assertEquals("USD", page.getContent().get(0).getCurrencyCode());
+        assertEquals("AUD", page.getContent().get(1).getCurrencyCode());
+        assertEquals("1999-01-07", page.getContent().get(1).getDate());
+        assertArrayEquals(new String[]{"1999-01-07", "AUD"}, ExchangeRateService.decodeCursor(page.getNextCursor()));
+        assertEquals(1, last.getContent().size());
+        assertEquals(1.179, last.getContent().get(0).getExchangeRate());
+        assertNull(last.getNextCursor());
+        verifyNoInteractions(exchangeRateBatchRepository);
+    }
+
+    @Test
+    void getExchangeRatePage_DuringAnIngest_ShowsOnlyThePublishedSnapshot() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder().version(1)
+                .add("USD", LocalDate.parse("1999-01-04").toEpochDay(), 1.1789)
+                .build());
+        when(bundesbankClient.fetchAllExchangeRatesCsv()).thenReturn(csv(
+                CSV_HEADER,
+                "BBK:BBEX3(1.0);D;USD;EUR;BB;AC;000;1999-01-05;1.179"
+        ));
+        when(exchangeRateBatchRepository.findAllKeys()).thenReturn(new HashSet<>());
+        List<ExchangeRatePage> pagesDuringIngest = new ArrayList<>();
+        doAnswer(invocation -> pagesDuringIngest.add(exchangeRateService.getExchangeRatePage(null, 10)))
+                .when(exchangeRateBatchRepository).batchInsert(any());
+
+        // When
+        exchangeRateService.fetchAndStoreAllExchangeRates();
+
+        // Then
+        assertEquals(1, pagesDuringIngest.get(0).getContent().size());
+        assertEquals("1999-01-04", pagesDuringIngest.get(0).getContent().get(0).getDate());
+    }
+
+    @Test
+    void getExchangeRatePage_InvalidCursor_ThrowsBadRequest() {
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> exchangeRateService.getExchangeRatePage("not-a-cursor", 10));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_OnMiss_StoresAndPublishesFetchedRates() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-02")).thenReturn(Mono.just(Arrays.asList(
+                new ExchangeRateResponse("USD", 1.0956, "2024-01-02"),
+                new ExchangeRateResponse("GBP", 0.8667, "2024-01-02"))));
+
+        // When
+        List<ExchangeRateResponse> rates = exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-02").block();
+
+        // Then
+        assertEquals(2, rates.size());
+        verify(exchangeRateBatchRepository, times(1)).batchMerge(any());
+        verify(rateMatrixStore, times(1)).merge(any());
+        verify(bundesbankClient, never()).fetchExchangeRates(anyString());
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_ConcurrentMissesShareOneFetch() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        Sinks.One<List<ExchangeRateResponse>> upstream = Sinks.one();
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-02")).thenReturn(upstream.asMono());
+
+        // When
+        CompletableFuture<List<ExchangeRateResponse>> first =
+                exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-02").toFuture();
+        CompletableFuture<List<ExchangeRateResponse>> second =
+                exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-02").toFuture();
+        upstream.tryEmitValue(Collections.singletonList(new ExchangeRateResponse("USD", 1.0956, "2024-01-02")));
+
+        // Then
+        assertEquals(1, first.join().size());
+        assertEquals(1, second.join().size());
+        verify(bundesbankClient, times(1)).fetchExchangeRatesAsync("2024-01-02");
+        verify(exchangeRateBatchRepository, times(1)).batchMerge(any());
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_WeekendInsideHistory_RejectedWithoutFetching() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", LocalDate.parse("2024-01-05").toEpochDay(), 1.0921)
+                .add("USD", LocalDate.parse("2024-01-08").toEpochDay(), 1.0946)
+                .ingestedThrough(LocalDate.parse("2024-01-08").toEpochDay())
+                .build());
+
+        // When
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> exchangeRateService.getFxExchangeRatesOnDate("2024-01-06"));
+        List<ExchangeRateResponse> fallback =
+                exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-07", true).block();
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("2024-01-05", fallback.get(0).getDate());
+        verifyNoInteractions(bundesbankClient);
+        assertEquals(1, meterRegistry.counter("forex.rates.lookups", "result", "known-empty").count());
+        assertEquals(1, meterRegistry.counter("forex.rates.lookups", "result", "snapshot").count());
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_DayBeforeOneFetchedOnDemand_IsStillFetched() {
+        // Given
+        RateMatrixStore store = new RateMatrixStore(exchangeRateBatchRepository);
+        ExchangeRateService storeBackedService = new ExchangeRateService(bundesbankClient,
+                exchangeRateBatchRepository, store, datasetSpool, ingestWorkers,
+                new FixedPointConverter(RoundingMode.HALF_UP, new String[0]), new ForexMetrics(meterRegistry),
+                transactionManager);
+        LocalDate ingested = LocalDate.parse("2024-01-08");
+        when(exchangeRateBatchRepository.findSyncedThrough()).thenReturn(Collections.singletonMap("USD", ingested));
+        doAnswer(invocation -> {
+            invocation.<ExchangeRateBatchRepository.RateConsumer>getArgument(0).accept("USD", ingested.toEpochDay(), 1.0946);
+            return null;
+        }).when(exchangeRateBatchRepository).forEachRate(any());
+        store.rebuild();
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-13")).thenReturn(Mono.just(
+                Collections.singletonList(new ExchangeRateResponse("USD", 1.0953, "2024-01-13"))));
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-10")).thenReturn(Mono.just(
+                Collections.singletonList(new ExchangeRateResponse("USD", 1.0967, "2024-01-10"))));
+
+        // When
+        storeBackedService.getFxExchangeRatesOnDate("2024-01-13");
+        List<ExchangeRateResponse> rates = storeBackedService.getFxExchangeRatesOnDate("2024-01-10");
+
+        // Then
+        assertEquals("2024-01-10", rates.get(0).getDate());
+        verify(bundesbankClient, times(1)).fetchExchangeRatesAsync("2024-01-10");
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_PreviousBusinessDayAfterTheIngestedRange_FetchesTheDayFirst() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", LocalDate.parse("2024-01-08").toEpochDay(), 1.0946)
+                .ingestedThrough(LocalDate.parse("2024-01-08").toEpochDay())
+                .build());
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-09")).thenReturn(Mono.just(
+                Collections.singletonList(new ExchangeRateResponse("USD", 1.0941, "2024-01-09"))));
+        when(bundesbankClient.fetchExchangeRatesAsync("2024-01-13")).thenReturn(Mono.just(Collections.emptyList()));
+
+        // When
+        List<ExchangeRateResponse> fetched = exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-09", true).block();
+        List<ExchangeRateResponse> fallback = exchangeRateService.getFxExchangeRatesOnDateAsync("2024-01-13", true).block();
+
+        // Then
+        assertEquals("2024-01-09", fetched.get(0).getDate());
+        assertEquals(1.0941, fetched.get(0).getExchangeRate());
+        assertEquals("2024-01-08", fallback.get(0).getDate());
+        verify(bundesbankClient, times(1)).fetchExchangeRatesAsync("2024-01-09");
+        verify(bundesbankClient, times(1)).fetchExchangeRatesAsync("2024-01-13");
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_EmptyUpstreamAnswer_IsCached() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        when(bundesbankClient.fetchExchangeRatesAsync("2030-01-01")).thenReturn(Mono.just(Collections.emptyList()));
+
+        // When
+        assertThrows(ResponseStatusException.class, () -> exchangeRateService.getFxExchangeRatesOnDate("2030-01-01"));
+        assertThrows(ResponseStatusException.class, () -> exchangeRateService.getFxExchangeRatesOnDate("2030-01-01"));
+
+        // Then
+        verify(bundesbankClient, times(1)).fetchExchangeRatesAsync("2030-01-01");
+    }
+
+    @Test
+    void exchangeCurrencyWithEuro_PreviousBusinessDay_UsesLatestEarlierRate() {
+        // Given
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.builder()
+                .version(1)
+                .add("USD", LocalDate.parse("2024-01-05").toEpochDay(), 1.25)
+                .build());
+
+        // When
+        ExchangedCurrencyAmountResponse response =
+                exchangeRateService.exchangeCurrencyWithEuro("USD", "2024-01-07", 100, true);
+
+        // Then
+        assertEquals("2024-01-05", response.getDate());
+        assertEquals(80.0, response.getConvertedAmount());
+    }
+
+    @Test
+    void getFxExchangeRatesOnDateAsync_InvalidDate_SignalsBadRequest() {
+        // When
+        Mono<List<ExchangeRateResponse>> rates = exchangeRateService.getFxExchangeRatesOnDateAsync("02.01.2024");
+
+        // Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, rates::block);
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(bundesbankClient);
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> recordInsertedRows() {
+        List<String> rows = new ArrayList<>();
+        doAnswer(invocation -> {
+            ExchangeRateBatch batch = invocation.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                rows.add(batch.currencyCode(i) + " " + LocalDate.ofEpochDay(batch.epochDay(i)) + " " + batch.rate(i));
+            }
+            return null;
+        }).when(exchangeRateBatchRepository).batchInsert(any());
+        return rows;
+    }
+}
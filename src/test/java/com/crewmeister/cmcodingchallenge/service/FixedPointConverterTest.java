@@ -0,0 +1,114 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointConverterTest {
+
+    private static final String[] CURRENCIES = {"EUR", "USD", "JPY", "KWD", "GBP"};
+
+    @Test
+    void convert_MatchesBigDecimalForEveryRoundingMode() {
+        // Given
+        Random random = new Random(42);
+
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            FixedPointConverter converter = new FixedPointConverter(mode, new String[0]);
+            for (int i = 0; i < 20_000; i++) {
+                double amount = decimal(random, 1_000_000_000L, 2) * (random.nextBoolean() ? 1 : -1);
+                double fromRate = random.nextInt(4) == 0 ? 1.0 : decimal(random, 20_000, 5);
+                double toRate = random.nextInt(4) == 0 ? 1.0 : decimal(random, 20_000, 5);
+                String target = CURRENCIES[random.nextInt(CURRENCIES.length)];
+
+                // When
+                double converted = converter.convert(amount, fromRate, toRate, target);
+
+                // Then
+                assertEquals(converter.convertExactly(amount, fromRate, toRate, converter.minorUnits(target)), converted,
+                        () -> mode + " " + amount + " * " + toRate + " / " + fromRate + " in " + target);
+            }
+        }
+    }
+
+    @Test
+    void convert_ExactWhereDoubleDivisionIsNot() {
+        // Given
+        FixedPointConverter converter = new FixedPointConverter(RoundingMode.HALF_UP, new String[0]);
+
+        // When
+        double converted = converter.convert(41_108_146_168.41, 7.4741, 1.0, "EUR");
+
+        // Then
+        assertEquals(5_500_079_764.58, BigDecimal.valueOf(41_108_146_168.41 / 7.4741).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        assertEquals(5_500_079_764.57, converted);
+    }
+
+    @Test
+    void convert_FallsBackToBigDecimalOutsideFixedPointRange() {
+        // Given
+        FixedPointConverter converter = new FixedPointConverter(RoundingMode.HALF_EVEN, new String[0]);
+
+        // When
+        double converted = converter.convert(0.123456789, 1.0813, 1.0, "EUR");
+
+        // Then
+        assertEquals(converter.convertExactly(0.123456789, 1.0813, 1.0, 2), converted);
+    }
+
+    @Test
+    void minorUnits_UsesOverridesThenIso4217() {
+        // Given
+        FixedPointConverter converter = new FixedPointConverter(RoundingMode.HALF_UP, new String[]{"usd:4", " JPY : 1 "});
+
+        // Then
+        assertEquals(4, converter.minorUnits("USD"));
+        assertEquals(1, converter.minorUnits("JPY"));
+        assertEquals(3, converter.minorUnits("KWD"));
+        assertEquals(2, converter.minorUnits("EUR"));
+        assertEquals(2, converter.minorUnits("XYZ"));
+        assertEquals(12.3457, converter.convert(12.345678, 1.0, 1.0, "USD"));
+    }
+
+    @Test
+    void constructor_RejectsUnnecessaryRoundingAndInvalidOverrides() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedPointConverter(RoundingMode.UNNECESSARY, new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> new FixedPointConverter(RoundingMode.HALF_UP, new String[]{"USD"}));
+        assertThrows(IllegalArgumentException.class, () -> new FixedPointConverter(RoundingMode.HALF_UP, new String[]{"USD:9"}));
+    }
+
+    @Test
+    void divideUnsigned_MatchesBigInteger() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long divisor = random.nextLong() >>> random.nextInt(63);
+            if (divisor == 0) {
+                continue;
+            }
+            long high = Long.remainderUnsigned(random.nextLong(), divisor);
+            long low = random.nextLong();
+            BigInteger dividend = unsigned(high).shiftLeft(64).or(unsigned(low));
+
+            assertEquals(dividend.divide(unsigned(divisor)).longValue(), FixedPointConverter.divideUnsigned(high, low, divisor),
+                    () -> high + ":" + low + " / " + divisor);
+        }
+    }
+
+    private static double decimal(Random random, long bound, int maxScale) {
+        int scale = random.nextInt(maxScale + 1);
+        long unscaled = (long) (random.nextDouble() * bound * Math.pow(10, scale)) + 1;
+        return Double.parseDouble(BigInteger.valueOf(unscaled) + "e-" + scale);
+    }
+
+    private static BigInteger unsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+}
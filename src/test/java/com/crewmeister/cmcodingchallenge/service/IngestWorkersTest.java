@@ -0,0 +1,63 @@
+package com.crewmeister.cmcodingchallenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestWorkersTest {
+
+    @Test
+    void forEach_RunsEveryKeyWithinConcurrencyLimit() {
+        // Given
+        IngestWorkers workers = new IngestWorkers(true, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        List<Integer> keys = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8);
+
+        // When
+        Map<Integer, Throwable> failures = workers.forEach(keys, key -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            completed.incrementAndGet();
+        });
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(8, completed.get());
+        assertTrue(maxRunning.get() <= 2);
+        workers.shutdown();
+    }
+
+    @Test
+    void forEach_ReportsFailuresWithoutStoppingOtherKeys() {
+        // Given
+        IngestWorkers workers = new IngestWorkers(true, 4);
+        AtomicInteger completed = new AtomicInteger();
+
+        // When
+        Map<String, Throwable> failures = workers.forEach(Arrays.asList("USD", "JPY", "GBP"), key -> {
+            if (key.equals("JPY")) {
+                throw new IllegalStateException("503");
+            }
+            completed.incrementAndGet();
+        });
+
+        // Then
+        assertEquals(Collections.singleton("JPY"), failures.keySet());
+        assertEquals("503", failures.get("JPY").getMessage());
+        assertEquals(2, completed.get());
+        workers.shutdown();
+    }
+}
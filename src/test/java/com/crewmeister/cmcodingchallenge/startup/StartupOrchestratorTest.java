@@ -0,0 +1,94 @@
+package com.crewmeister.cmcodingchallenge.startup;
+
+import com.crewmeister.cmcodingchallenge.service.CurrencyService;
+import com.crewmeister.cmcodingchallenge.service.ExchangeRateService;
+import com.crewmeister.cmcodingchallenge.store.CurrencyCatalog;
+import com.crewmeister.cmcodingchallenge.store.RateMatrix;
+import com.crewmeister.cmcodingchallenge.store.RateMatrixStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StartupOrchestratorTest {
+
+    private static final RateMatrix SNAPSHOT = RateMatrix.builder()
+            .version(1)
+            .add("USD", LocalDate.parse("2024-01-05").toEpochDay(), 1.0921)
+            .build();
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private RateMatrixStore rateMatrixStore;
+
+    @Test
+    void start_LoadsInParallelAndIsWarmOncePersistedSnapshotIsPublished() {
+        // Given
+        CompletableFuture<CurrencyCatalog> currencies = new CompletableFuture<>();
+        CompletableFuture<Void> sync = new CompletableFuture<>();
+        when(currencyService.loadCurrenciesAtStartup()).thenReturn(currencies);
+        when(exchangeRateService.initFX()).thenReturn(sync);
+        when(rateMatrixStore.current()).thenReturn(RateMatrix.empty());
+        StartupOrchestrator orchestrator = new StartupOrchestrator(currencyService, exchangeRateService, rateMatrixStore, false);
+        StartupHealthIndicator health = new StartupHealthIndicator(orchestrator, rateMatrixStore);
+
+        // When
+        orchestrator.start();
+
+        // Then
+        verify(currencyService, times(1)).loadCurrenciesAtStartup();
+        verify(exchangeRateService, times(1)).initFX();
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+        currencies.completeExceptionally(new IllegalStateException("API Error"));
+        assertFalse(orchestrator.isWarm());
+
+        when(rateMatrixStore.current()).thenReturn(SNAPSHOT);
+        assertTrue(orchestrator.isWarm());
+        assertEquals(Status.UP, health.health().getStatus());
+        assertEquals(StartupOrchestrator.LoadState.FAILED, orchestrator.currencyLoad());
+        assertEquals(StartupOrchestrator.LoadState.RUNNING, orchestrator.rateSync());
+    }
+
+    @Test
+    void isWarm_WithAwaitSync_WaitsForUpstreamSync() {
+        // Given
+        CompletableFuture<Void> sync = new CompletableFuture<>();
+        when(currencyService.loadCurrenciesAtStartup()).thenReturn(CompletableFuture.completedFuture(null));
+        when(exchangeRateService.initFX()).thenReturn(sync);
+        when(rateMatrixStore.current()).thenReturn(SNAPSHOT);
+        StartupOrchestrator orchestrator = new StartupOrchestrator(currencyService, exchangeRateService, rateMatrixStore, true);
+
+        // When
+        orchestrator.start();
+
+        // Then
+        assertFalse(orchestrator.isWarm());
+        sync.complete(null);
+        assertTrue(orchestrator.isWarm());
+        assertEquals(StartupOrchestrator.LoadState.DONE, orchestrator.rateSync());
+    }
+
+    @Test
+    void isWarm_BeforeStart_IsFalse() {
+        // Given
+        StartupOrchestrator orchestrator = new StartupOrchestrator(currencyService, exchangeRateService, rateMatrixStore, false);
+
+        // Then
+        assertFalse(orchestrator.isWarm());
+        verifyNoInteractions(rateMatrixStore);
+    }
+}
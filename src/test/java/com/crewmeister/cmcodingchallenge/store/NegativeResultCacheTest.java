@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NegativeResultCacheTest {
+
+    @Test
+    void contains_ExpiresEntriesAfterTtl() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        NegativeResultCache<String> cache = new NegativeResultCache<>(10, Duration.ofNanos(100), now::get);
+        cache.put("2024-12-25");
+
+        // When
+        now.set(99);
+        boolean beforeExpiry = cache.contains("2024-12-25");
+        now.set(100);
+        boolean afterExpiry = cache.contains("2024-12-25");
+
+        // Then
+        assertTrue(beforeExpiry);
+        assertFalse(afterExpiry);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_EvictsLeastRecentlyUsedBeyondMaxSize() {
+        // Given
+        NegativeResultCache<String> cache = new NegativeResultCache<>(2, Duration.ofMinutes(1));
+        cache.put("a");
+        cache.put("b");
+        cache.contains("a");
+
+        // When
+        cache.put("c");
+
+        // Then
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+    }
+}
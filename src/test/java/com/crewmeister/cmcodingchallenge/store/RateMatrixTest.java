@@ -0,0 +1,165 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateMatrixTest {
+
+    private static final long JAN_4 = LocalDate.parse("1999-01-04").toEpochDay();
+    private static final long JAN_6 = LocalDate.parse("1999-01-06").toEpochDay();
+
+    @Test
+    void build_LooksUpRatesByCurrencyAndDay() {
+        // Given
+        RateMatrix matrix = RateMatrix.builder()
+                .add("USD", JAN_4, 1.1789)
+                .add("AUD", JAN_4, 1.91)
+                .add("USD", JAN_6, 1.1743)
+                .build();
+
+        // Then
+        assertEquals(2, matrix.currencyCount());
+        assertEquals(3, matrix.dayCount());
+        assertEquals(0, matrix.currencyId("AUD"));
+        assertEquals(1.1789, matrix.rate("USD", LocalDate.parse("1999-01-04")));
+        assertEquals(1.1743, matrix.rate(matrix.currencyId("USD"), JAN_6));
+        assertTrue(Double.isNaN(matrix.rate("AUD", LocalDate.parse("1999-01-06"))));
+        assertEquals(3, matrix.observationCount());
+    }
+
+    @Test
+    void rate_OutsideRangeOrUnknownCurrency_IsNaN() {
+        // Given
+        RateMatrix matrix = RateMatrix.builder().add("USD", JAN_4, 1.1789).build();
+
+        // Then
+        assertEquals(-1, matrix.currencyId("XXX"));
+        assertTrue(Double.isNaN(matrix.rate("XXX", LocalDate.parse("1999-01-04"))));
+        assertTrue(Double.isNaN(matrix.rate("USD", LocalDate.parse("1999-01-03"))));
+        assertTrue(Double.isNaN(matrix.rate("USD", LocalDate.parse("1999-01-05"))));
+        assertTrue(RateMatrix.empty().isEmpty());
+    }
+
+    @Test
+    void addAll_MergesExistingMatrixWithNewRows() {
+        // Given
+        RateMatrix original = RateMatrix.builder().add("USD", JAN_4, 1.1789).build();
+
+        // When
+        RateMatrix merged = RateMatrix.builder().addAll(original).add("GBP", JAN_6, 0.7111).build();
+
+        // Then
+        assertEquals(1.1789, merged.rate("USD", LocalDate.parse("1999-01-04")));
+        assertEquals(0.7111, merged.rate("GBP", LocalDate.parse("1999-01-06")));
+        assertEquals(JAN_4, merged.firstEpochDay());
+        assertEquals(JAN_6, merged.lastEpochDay());
+    }
+
+    @Test
+    void series_SlicesGapFreeObservationsByDayRange() {
+        // Given
+        long jan5 = JAN_4 + 1;
+        RateMatrix matrix = RateMatrix.builder()
+                .add("USD", JAN_4, 1.1789)
+                .add("AUD", jan5, 1.8944)
+                .add("USD", JAN_6, 1.1743)
+                .build();
+        RateSeries usd = matrix.series("USD");
+
+        // When
+        RateSeries fromJan5 = usd.between(jan5, Long.MAX_VALUE);
+        RateSeries exact = usd.between(JAN_4, JAN_6);
+
+        // Then
+        assertEquals(2, usd.size());
+        assertEquals(1, fromJan5.size());
+        assertEquals(JAN_6, fromJan5.epochDay(0));
+        assertEquals(1.1743, fromJan5.rate(0));
+        assertEquals(2, exact.size());
+        assertTrue(usd.between(jan5, jan5).isEmpty());
+        assertTrue(usd.between(JAN_6 + 1, Long.MAX_VALUE).isEmpty());
+        assertNull(matrix.series("XXX"));
+    }
+
+    @Test
+    void previousBusinessDay_SkipsDaysWithoutObservations() {
+        // Given
+        RateMatrix matrix = RateMatrix.builder()
+                .add("USD", JAN_4, 1.1789)
+                .add("AUD", JAN_6, 1.91)
+                .build();
+
+        // Then
+        assertTrue(matrix.isBusinessDay(JAN_4));
+        assertFalse(matrix.isBusinessDay(JAN_4 + 1));
+        assertTrue(matrix.covers(JAN_4 + 1));
+        assertEquals(JAN_4, matrix.previousBusinessDay(JAN_4 + 1));
+        assertEquals(JAN_6, matrix.previousBusinessDay(JAN_6 + 30));
+        assertEquals(Long.MIN_VALUE, matrix.previousBusinessDay(JAN_4 - 1));
+        assertEquals(0, matrix.series("USD").indexAtOrBefore(JAN_6));
+        assertEquals(-1, matrix.series("AUD").indexAtOrBefore(JAN_4));
+    }
+
+    @Test
+    void fingerprint_DependsOnContentOnly() {
+        // Given
+        RateMatrix first = RateMatrix.builder().version(1).add("USD", JAN_4, 1.1789).add("GBP", JAN_6, 0.7111).build();
+        RateMatrix second = RateMatrix.builder().version(7).add("GBP", JAN_6, 0.7111).add("USD", JAN_4, 1.1789).build();
+        RateMatrix changed = RateMatrix.builder().version(1).add("USD", JAN_4, 1.1790).add("GBP", JAN_6, 0.7111).build();
+
+        // Then
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first.fingerprint(), changed.fingerprint());
+        assertNotEquals(first.fingerprint(), RateMatrix.empty().fingerprint());
+    }
+
+    @Test
+    void mergedWith_DayInsideRange_CopiesOnWriteKeepsVersionAndChangesFingerprint() {
+        // Given
+        RateMatrix matrix = RateMatrix.builder().version(3)
+                .add("USD", JAN_4, 1.1789)
+                .add("AUD", JAN_4, 1.91)
+                .add("USD", JAN_6, 1.1743)
+                .ingestedThrough(JAN_4)
+                .build();
+        ExchangeRateBatch rows = new ExchangeRateBatch(1);
+        rows.add("USD", JAN_4 + 1, 1.1790);
+
+        // When
+        RateMatrix merged = matrix.mergedWith(rows);
+
+        // Then
+        assertEquals(3, merged.version());
+        assertNotEquals(matrix.fingerprint(), merged.fingerprint());
+        assertEquals(JAN_4, merged.ingestedThrough());
+        assertEquals(1.1790, merged.rate(merged.currencyId("USD"), JAN_4 + 1));
+        assertTrue(merged.isBusinessDay(JAN_4 + 1));
+        assertEquals(3, merged.series("USD").size());
+        assertSame(matrix.series("AUD"), merged.series("AUD"));
+        assertTrue(Double.isNaN(matrix.rate(matrix.currencyId("USD"), JAN_4 + 1)));
+        assertFalse(matrix.isBusinessDay(JAN_4 + 1));
+    }
+
+    @Test
+    void mergedWith_DayOutsideRange_RelaysOutKeepsVersionAndChangesFingerprint() {
+        // Given
+        RateMatrix matrix = RateMatrix.builder().version(3).add("USD", JAN_4, 1.1789).ingestedThrough(JAN_4).build();
+        ExchangeRateBatch rows = new ExchangeRateBatch(1);
+        rows.add("GBP", JAN_6, 0.7111);
+
+        // When
+        RateMatrix merged = matrix.mergedWith(rows);
+
+        // Then
+        assertEquals(3, merged.version());
+        assertNotEquals(matrix.fingerprint(), merged.fingerprint());
+        assertEquals(JAN_4, merged.ingestedThrough());
+        assertEquals(JAN_6, merged.lastEpochDay());
+        assertEquals(0.7111, merged.rate("GBP", LocalDate.parse("1999-01-06")));
+        assertEquals(1.1789, merged.rate("USD", LocalDate.parse("1999-01-04")));
+    }
+}
@@ -0,0 +1,118 @@
+package com.crewmeister.cmcodingchallenge.store;
+
+import com.crewmeister.cmcodingchallenge.metrics.ForexMetrics;
+import com.crewmeister.cmcodingchallenge.repository.ExchangeRateBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializedResponseCacheTest {
+
+    private RateMatrixStore rateMatrixStore;
+    private AtomicInteger produced;
+    private ForexMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        rateMatrixStore = new RateMatrixStore(null);
+        rateMatrixStore.publish(RateMatrix.builder().version(1).add("USD", 0, 1.1).build());
+        produced = new AtomicInteger();
+        metrics = new ForexMetrics(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_ServesCachedBytesUntilNewSnapshotIsPublished() {
+        // Given
+        SerializedResponseCache cache = new SerializedResponseCache(rateMatrixStore, new ObjectMapper(), metrics, 16, 1024);
+
+        // When
+        byte[] first = body(cache, "a");
+        byte[] second = body(cache, "a");
+        rateMatrixStore.publish(RateMatrix.builder().version(2).add("USD", 0, 1.2).build());
+        byte[] third = body(cache, "a");
+
+        // Then
+        assertEquals("{\"call\":1}", new String(first, StandardCharsets.UTF_8));
+        assertSame(first, second);
+        assertEquals("{\"call\":2}", new String(third, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedEntries() {
+        // Given
+        SerializedResponseCache cache = new SerializedResponseCache(rateMatrixStore, new ObjectMapper(), metrics, 2, 1024);
+        body(cache, "a");
+        body(cache, "b");
+        body(cache, "a");
+
+        // When
+        body(cache, "c");
+        body(cache, "b");
+
+        // Then
+        assertEquals(4, produced.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void get_KeepsTheDateOfTheProducedValueWithCachedBytes() {
+        // Given
+        SerializedResponseCache cache = new SerializedResponseCache(rateMatrixStore, new ObjectMapper(), metrics, 16, 1024);
+        cache.get("a", "2024-01-05", this::produce, value -> "2024-01-05").block();
+
+        // When
+        SerializedResponseCache.Rendered cached = cache.get("a", "2024-01-05", this::produce, value -> "2024-01-08").block();
+
+        // Then
+        assertEquals(1, produced.get());
+        assertEquals("2024-01-05", cached.date());
+        assertEquals("{\"call\":1}", new String(cached.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_OnDemandMerge_KeepsCachedBodies() {
+        // Given
+        SerializedResponseCache cache = new SerializedResponseCache(rateMatrixStore, new ObjectMapper(), metrics, 16, 1024);
+        byte[] first = body(cache, "a");
+        ExchangeRateBatch fetched = new ExchangeRateBatch(1);
+        fetched.add("USD", 1, 1.15);
+
+        // When
+        rateMatrixStore.merge(fetched);
+        byte[] second = body(cache, "a");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, produced.get());
+    }
+
+    @Test
+    void get_AnswerAboutAnotherDate_IsNotCached() {
+        // Given
+        SerializedResponseCache cache = new SerializedResponseCache(rateMatrixStore, new ObjectMapper(), metrics, 16, 1024);
+
+        // When
+        cache.get("a", "2024-01-07", this::produce, value -> "2024-01-05").block();
+        cache.get("a", "2024-01-07", this::produce, value -> "2024-01-05").block();
+
+        // Then
+        assertEquals(2, produced.get());
+        assertEquals(0, cache.size());
+    }
+
+    private Mono<Object> produce() {
+        return Mono.fromSupplier(() -> Collections.singletonMap("call", produced.incrementAndGet()));
+    }
+
+    private byte[] body(SerializedResponseCache cache, String key) {
+        return cache.get(key, null, this::produce, value -> null).block().body();
+    }
+}